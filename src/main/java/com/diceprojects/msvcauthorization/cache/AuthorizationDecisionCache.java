@@ -0,0 +1,159 @@
+package com.diceprojects.msvcauthorization.cache;
+
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria y acotada de decisiones de autorización, indexada por usuario y requisito de roles.
+ * <p>
+ * Las decisiones de cada usuario se agrupan bajo su nombre de usuario normalizado, de modo que un cambio en
+ * los roles de un usuario invalida todas sus decisiones con una sola operación. Los cambios de nombre o estado
+ * de un rol invalidan la caché completa, ya que son poco frecuentes. Cada usuario conserva como máximo
+ * {@value #MAX_REQUIREMENTS_PER_USER} requisitos distintos. Los aciertos y fallos se publican en la métrica
+ * {@code authorization.decision.cache}.
+ * <p>
+ * Igual que en {@link UserDetailsCache}, cada decisión se calcula con una marca obtenida con {@link #token()} antes
+ * de cargar al usuario, y {@link #put(String, String, boolean, long)} la descarta si el usuario o la caché completa
+ * se invalidaron después. Así, una autorización en curso durante un cambio de roles no vuelve a guardar la decisión anterior.
+ */
+@Component
+public class AuthorizationDecisionCache {
+
+    private static final int MAX_REQUIREMENTS_PER_USER = 64;
+
+    private final Cache<String, Map<String, Boolean>> decisionsByUser;
+    private final Cache<String, Long> evictionStamps;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong minimumValidToken = new AtomicLong();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    /**
+     * Constructor de AuthorizationDecisionCache.
+     *
+     * @param meterRegistry el registro de métricas donde se publican las estadísticas de la caché.
+     * @param maxSize       la cantidad máxima de usuarios con decisiones en caché.
+     * @param ttl           el tiempo de vida de las decisiones de un usuario.
+     */
+    public AuthorizationDecisionCache(MeterRegistry meterRegistry,
+                                      @Value("${msvc.cache.authorization.max-size:10000}") long maxSize,
+                                      @Value("${msvc.cache.authorization.ttl:5m}") Duration ttl) {
+        this.decisionsByUser = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.evictionStamps = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((String username, Long stamp, RemovalCause cause) -> {
+                    if (stamp != null) {
+                        minimumValidToken.accumulateAndGet(stamp, Math::max);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, decisionsByUser, "authorizationDecisions");
+        this.hitCounter = Counter.builder("authorization.decision.cache")
+                .tag("result", "hit")
+                .description("Decisiones de autorización resueltas desde la caché")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("authorization.decision.cache")
+                .tag("result", "miss")
+                .description("Decisiones de autorización que debieron calcularse")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtiene una decisión en caché.
+     *
+     * @param username    el nombre de usuario.
+     * @param requirement la clave normalizada del requisito de roles.
+     * @return la decisión, o {@code null} si no está en caché.
+     */
+    public Boolean get(String username, String requirement) {
+        Map<String, Boolean> decisions = decisionsByUser.getIfPresent(KeyNormalizer.normalize(username));
+        Boolean decision = decisions != null ? decisions.get(requirement) : null;
+        (decision != null ? hitCounter : missCounter).increment();
+        return decision;
+    }
+
+    /**
+     * Obtiene la marca que debe capturarse antes de cargar al usuario para calcular una decisión.
+     *
+     * @return la marca actual de invalidación.
+     */
+    public long token() {
+        return clock.get();
+    }
+
+    /**
+     * Almacena una decisión de un usuario, salvo que el usuario haya sido invalidado después de obtener
+     * la marca con la que se inició su cálculo.
+     *
+     * @param username    el nombre de usuario.
+     * @param requirement la clave normalizada del requisito de roles.
+     * @param allowed     la decisión calculada.
+     * @param token       la marca obtenida con {@link #token()} antes de cargar al usuario.
+     */
+    public void put(String username, String requirement, boolean allowed, long token) {
+        decisionsByUser.asMap().compute(KeyNormalizer.normalize(username), (key, decisions) -> {
+            if (isStale(key, token)) {
+                return decisions;
+            }
+            Map<String, Boolean> current = decisions != null ? decisions : new ConcurrentHashMap<>();
+            if (current.size() < MAX_REQUIREMENTS_PER_USER || current.containsKey(requirement)) {
+                current.put(requirement, allowed);
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Invalida todas las decisiones de un usuario.
+     *
+     * @param username el nombre de usuario.
+     */
+    public void evictUser(String username) {
+        if (username != null) {
+            String key = KeyNormalizer.normalize(username);
+            evictionStamps.asMap().merge(key, clock.incrementAndGet(), Math::max);
+            decisionsByUser.invalidate(key);
+        }
+    }
+
+    /**
+     * Invalida todas las decisiones en caché.
+     */
+    public void evictAll() {
+        minimumValidToken.accumulateAndGet(clock.incrementAndGet(), Math::max);
+        decisionsByUser.invalidateAll();
+    }
+
+    /**
+     * Indica si una decisión calculada con la marca indicada es anterior a la última invalidación del usuario
+     * o a la última invalidación global.
+     *
+     * @param key   el nombre de usuario normalizado.
+     * @param token la marca obtenida antes de cargar al usuario.
+     * @return {@code true} si la decisión puede estar desactualizada.
+     */
+    private boolean isStale(String key, long token) {
+        if (token < minimumValidToken.get()) {
+            return true;
+        }
+        Long evictedAt = evictionStamps.getIfPresent(key);
+        return evictedAt != null && token < evictedAt;
+    }
+}
@@ -0,0 +1,195 @@
+package com.diceprojects.msvcauthorization.cache;
+
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria y acotada de roles, indexada por ID y por nombre normalizado.
+ * <p>
+ * La colección de roles es pequeña y cambia con poca frecuencia, por lo que mantenerla en memoria
+ * evita consultas a MongoDB en cada resolución de usuario. Los métodos de escritura de
+ * {@code RoleServiceImpl} son responsables de actualizar o invalidar las entradas afectadas.
+ * El tamaño, la tasa de aciertos y las expulsiones se publican como métricas.
+ * <p>
+ * Igual que en {@link UserDetailsCache}, las lecturas obtienen una marca con {@link #token()} antes de consultar
+ * la base de datos y la entregan a {@link #put(Role, long)}. Las escrituras y las invalidaciones registran una marca
+ * posterior, por rol o global, y los roles leídos con una marca anterior se descartan, tanto en la caché como
+ * en el {@link RoleIndex}. Así, una lectura iniciada antes de un cambio de estado no puede reactivar el rol.
+ */
+@Component
+public class RoleCache {
+
+    private final Cache<String, Role> rolesById;
+    private final Cache<String, Role> rolesByName;
+    private final Cache<String, Long> evictionStamps;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong minimumValidToken = new AtomicLong();
+    private final RoleIndex roleIndex;
+
+    /**
+     * Constructor de RoleCache.
+     *
+     * @param meterRegistry el registro de métricas donde se publican las estadísticas de la caché.
+     * @param roleIndex     el índice de roles, que se actualiza con cada rol almacenado.
+     * @param maxSize       la cantidad máxima de roles que se mantienen en cada índice.
+     * @param ttl           el tiempo de vida de un rol en caché.
+     */
+    public RoleCache(MeterRegistry meterRegistry, RoleIndex roleIndex,
+                     @Value("${msvc.cache.roles.max-size:1000}") long maxSize,
+                     @Value("${msvc.cache.roles.ttl:30m}") Duration ttl) {
+        this.roleIndex = roleIndex;
+        this.rolesById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.rolesByName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.evictionStamps = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((String roleId, Long stamp, RemovalCause cause) -> {
+                    if (stamp != null) {
+                        minimumValidToken.accumulateAndGet(stamp, Math::max);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, rolesById, "rolesById");
+        CaffeineCacheMetrics.monitor(meterRegistry, rolesByName, "rolesByName");
+    }
+
+    /**
+     * Obtiene un rol en caché por su nombre, sin distinguir mayúsculas y minúsculas.
+     *
+     * @param roleName el nombre del rol.
+     * @return el rol en caché, o {@code null} si no está presente.
+     */
+    public Role getByName(String roleName) {
+        return rolesByName.getIfPresent(KeyNormalizer.normalize(roleName));
+    }
+
+    /**
+     * Obtiene los roles en caché para un conjunto de IDs.
+     *
+     * @param roleIds los IDs de los roles.
+     * @return un mapa con los roles presentes en caché, indexados por ID.
+     */
+    public Map<String, Role> getAllById(Collection<String> roleIds) {
+        return rolesById.getAllPresent(roleIds);
+    }
+
+    /**
+     * Obtiene la marca que debe capturarse antes de leer un rol de la base de datos.
+     *
+     * @return la marca actual de invalidación.
+     */
+    public long token() {
+        return clock.get();
+    }
+
+    /**
+     * Agrega o reemplaza un rol recién escrito en ambos índices y actualiza su nombre, estado y roles heredados
+     * en el {@link RoleIndex}. Las lecturas del rol iniciadas antes de esta escritura se descartan.
+     *
+     * @param role el rol a almacenar.
+     */
+    public void put(Role role) {
+        rolesById.asMap().compute(role.getId(), (roleId, previous) -> {
+            evictionStamps.asMap().merge(roleId, clock.incrementAndGet(), Math::max);
+            return store(previous, role);
+        });
+    }
+
+    /**
+     * Agrega o reemplaza un rol leído de la base de datos, salvo que el rol haya sido modificado o invalidado
+     * después de obtener la marca con la que se inició la lectura.
+     *
+     * @param role  el rol a almacenar.
+     * @param token la marca obtenida con {@link #token()} antes de iniciar la lectura.
+     */
+    public void put(Role role, long token) {
+        rolesById.asMap().compute(role.getId(), (roleId, previous) -> isStale(roleId, token) ? previous : store(previous, role));
+    }
+
+    /**
+     * Elimina un rol de ambos índices. Las lecturas del rol iniciadas antes de la invalidación se descartan.
+     *
+     * @param roleId el ID del rol a eliminar.
+     */
+    public void evictById(String roleId) {
+        evictionStamps.asMap().merge(roleId, clock.incrementAndGet(), Math::max);
+        Role previous = rolesById.asMap().remove(roleId);
+        if (previous != null) {
+            evictName(previous.getRole());
+        }
+    }
+
+    /**
+     * Elimina todos los roles en caché. Las lecturas iniciadas antes de la invalidación se descartan.
+     */
+    public void evictAll() {
+        minimumValidToken.accumulateAndGet(clock.incrementAndGet(), Math::max);
+        rolesById.invalidateAll();
+        rolesByName.invalidateAll();
+    }
+
+    /**
+     * Elimina la entrada de un nombre de rol del índice por nombre.
+     *
+     * @param roleName el nombre del rol a eliminar.
+     */
+    public void evictName(String roleName) {
+        if (roleName != null) {
+            rolesByName.invalidate(KeyNormalizer.normalize(roleName));
+        }
+    }
+
+    /**
+     * Actualiza el índice por nombre y el {@link RoleIndex} con un rol. Se invoca dentro de la actualización
+     * del índice por ID, de modo que las escrituras concurrentes del mismo rol se aplican en orden.
+     *
+     * @param previous el rol en caché hasta ahora, o {@code null}.
+     * @param role     el rol a almacenar.
+     * @return el rol a almacenar en el índice por ID.
+     */
+    private Role store(Role previous, Role role) {
+        if (previous != null && !Objects.equals(KeyNormalizer.normalize(previous.getRole()), KeyNormalizer.normalize(role.getRole()))) {
+            evictName(previous.getRole());
+        }
+        rolesByName.put(KeyNormalizer.normalize(role.getRole()), role);
+        roleIndex.register(role);
+        return role;
+    }
+
+    /**
+     * Indica si una lectura iniciada con la marca indicada es anterior a la última escritura o invalidación del rol
+     * o a la última invalidación global.
+     *
+     * @param roleId el ID del rol.
+     * @param token  la marca obtenida antes de iniciar la lectura.
+     * @return {@code true} si el rol leído puede estar desactualizado.
+     */
+    private boolean isStale(String roleId, long token) {
+        if (token < minimumValidToken.get()) {
+            return true;
+        }
+        Long evictedAt = evictionStamps.getIfPresent(roleId);
+        return evictedAt != null && token < evictedAt;
+    }
+}
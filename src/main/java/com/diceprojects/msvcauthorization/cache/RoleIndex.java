@@ -0,0 +1,322 @@
+package com.diceprojects.msvcauthorization.cache;
+
+import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleDTO;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Índice en memoria que asigna a cada rol un número entero denso, usado como posición en los conjuntos de bits
+ * de roles de los usuarios.
+ * <p>
+ * Con este índice los roles de un usuario se representan como un {@link BitSet}, y las verificaciones de
+ * autorización y los filtros por rol se resuelven con operaciones de bits en lugar de comparar conjuntos de cadenas.
+ * Las posiciones se asignan la primera vez que se ve un rol y no se reutilizan. El nombre, el estado y los roles
+ * heredados de cada rol se mantienen en una instantánea inmutable que solo se reemplaza cuando un rol cambia,
+ * de modo que las lecturas no requieren sincronización.
+ * <p>
+ * Al reemplazar la instantánea se recalcula la clausura transitiva de la jerarquía: para cada rol activo, el conjunto
+ * de bits de todos los roles que hereda directa o indirectamente a través de roles activos. Así, expandir los roles
+ * heredados de un usuario es una unión de conjuntos de bits, sin recorrer la jerarquía en cada consulta.
+ */
+@Component
+public class RoleIndex {
+
+    private static final String ACTIVE_STATUS = "Active";
+
+    private final Map<String, Integer> bitsByRoleId = new ConcurrentHashMap<>();
+    private final AtomicInteger nextBit = new AtomicInteger();
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), new BitSet(), Map.of(), Map.of());
+
+    /**
+     * Obtiene la posición asignada a un rol, asignándole una nueva si aún no tiene.
+     *
+     * @param roleId el ID del rol.
+     * @return la posición del rol en los conjuntos de bits.
+     */
+    public int bitOf(String roleId) {
+        return bitsByRoleId.computeIfAbsent(roleId, id -> nextBit.getAndIncrement());
+    }
+
+    /**
+     * Registra o actualiza un rol completo, incluyendo los roles que hereda.
+     * Si el rol no cambió desde el último registro, la operación no modifica el índice.
+     *
+     * @param role el rol a registrar.
+     */
+    public void register(Role role) {
+        registerAll(List.of(role));
+    }
+
+    /**
+     * Registra o actualiza un conjunto de roles completos en una única actualización del índice.
+     * Se usa para cargar la jerarquía completa al iniciar y antes de validar cambios en la herencia.
+     *
+     * @param roles los roles a registrar.
+     */
+    public void registerAll(Collection<Role> roles) {
+        Snapshot current = snapshot;
+        boolean unchanged = true;
+        for (Role role : roles) {
+            int bit = bitOf(role.getId());
+            if (!current.isUnchanged(bit, role.getRole(), role.getStatus(), toBits(role.getInheritedRoleIds()))) {
+                unchanged = false;
+                break;
+            }
+        }
+        if (unchanged) {
+            return;
+        }
+
+        synchronized (this) {
+            Builder builder = new Builder(snapshot);
+            for (Role role : roles) {
+                builder.put(bitOf(role.getId()), new RoleDTO(role.getId(), role.getRole(), role.getStatus()),
+                        toBits(role.getInheritedRoleIds()));
+            }
+            snapshot = builder.build();
+        }
+    }
+
+    /**
+     * Construye el conjunto de bits de los roles con los nombres indicados.
+     * Los nombres que no corresponden a ningún rol registrado se ignoran.
+     *
+     * @param normalizedNames los nombres de rol normalizados.
+     * @return el conjunto de bits de los roles encontrados.
+     */
+    public BitSet bitsForNames(Collection<String> normalizedNames) {
+        Map<String, Integer> bitsByName = snapshot.bitsByName();
+        BitSet bits = new BitSet();
+        for (String name : normalizedNames) {
+            Integer bit = bitsByName.get(name);
+            if (bit != null) {
+                bits.set(bit);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Expande un conjunto de roles asignados con todos los roles que heredan, según la clausura precalculada.
+     * Los roles inactivos se conservan en el resultado, pero no aportan roles heredados.
+     *
+     * @param assignedBits el conjunto de bits de los roles asignados.
+     * @return un nuevo conjunto de bits con los roles asignados y los heredados.
+     */
+    public BitSet expand(BitSet assignedBits) {
+        Map<Integer, BitSet> closuresByBit = snapshot.closuresByBit();
+        BitSet effectiveBits = (BitSet) assignedBits.clone();
+        for (int bit = assignedBits.nextSetBit(0); bit >= 0; bit = assignedBits.nextSetBit(bit + 1)) {
+            BitSet closure = closuresByBit.get(bit);
+            if (closure != null) {
+                effectiveBits.or(closure);
+            }
+        }
+        return effectiveBits;
+    }
+
+    /**
+     * Obtiene el rol registrado en una posición.
+     *
+     * @param bit la posición del rol.
+     * @return el rol registrado, o {@code null} si la posición no tiene un rol registrado.
+     */
+    public RoleDTO roleAt(int bit) {
+        return snapshot.rolesByBit().get(bit);
+    }
+
+    /**
+     * Obtiene el conjunto de bits de un rol y de todos los roles que lo heredan directa o indirectamente,
+     * sin considerar su estado. Se usa para invalidar a los usuarios afectados por un cambio en un rol.
+     *
+     * @param roleId el ID del rol.
+     * @return el conjunto de bits del rol y de los roles que lo heredan.
+     */
+    public BitSet bitsInheriting(String roleId) {
+        Map<Integer, BitSet> inheritedByBit = snapshot.inheritedByBit();
+        BitSet inheriting = new BitSet();
+        inheriting.set(bitOf(roleId));
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Map.Entry<Integer, BitSet> entry : inheritedByBit.entrySet()) {
+                if (!inheriting.get(entry.getKey()) && entry.getValue().intersects(inheriting)) {
+                    inheriting.set(entry.getKey());
+                    changed = true;
+                }
+            }
+        }
+        return inheriting;
+    }
+
+    /**
+     * Indica si asignar a un rol los roles heredados indicados formaría un ciclo en la jerarquía.
+     * La verificación usa la jerarquía registrada, reemplazando los roles heredados del rol por los propuestos.
+     *
+     * @param roleId            el ID del rol, o {@code null} si el rol aún no existe.
+     * @param inheritedRoleIds  los IDs de los roles que el rol heredaría.
+     * @return {@code true} si el rol se heredaría a sí mismo, directa o indirectamente.
+     */
+    public boolean createsCycle(String roleId, Collection<String> inheritedRoleIds) {
+        if (roleId == null || inheritedRoleIds == null || inheritedRoleIds.isEmpty()) {
+            return false;
+        }
+        int roleBit = bitOf(roleId);
+        Map<Integer, BitSet> inheritedByBit = snapshot.inheritedByBit();
+        BitSet visited = new BitSet();
+        Deque<Integer> pending = new ArrayDeque<>();
+        BitSet proposed = toBits(inheritedRoleIds);
+        for (int bit = proposed.nextSetBit(0); bit >= 0; bit = proposed.nextSetBit(bit + 1)) {
+            pending.push(bit);
+        }
+        while (!pending.isEmpty()) {
+            int bit = pending.pop();
+            if (bit == roleBit) {
+                return true;
+            }
+            if (visited.get(bit)) {
+                continue;
+            }
+            visited.set(bit);
+            BitSet inherited = inheritedByBit.get(bit);
+            if (inherited != null) {
+                for (int next = inherited.nextSetBit(0); next >= 0; next = inherited.nextSetBit(next + 1)) {
+                    pending.push(next);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica si alguno de los roles de un usuario está activo y forma parte de los roles requeridos.
+     *
+     * @param userBits     el conjunto de bits de los roles del usuario.
+     * @param requiredBits el conjunto de bits de los roles requeridos.
+     * @return {@code true} si el usuario tiene al menos uno de los roles requeridos activo.
+     */
+    public boolean hasAnyActive(BitSet userBits, BitSet requiredBits) {
+        BitSet matches = (BitSet) userBits.clone();
+        matches.and(requiredBits);
+        return matches.intersects(snapshot.activeBits());
+    }
+
+    /**
+     * Convierte un conjunto de IDs de roles en su conjunto de bits.
+     *
+     * @param roleIds los IDs de los roles, o {@code null}.
+     * @return el conjunto de bits de los roles.
+     */
+    private BitSet toBits(Collection<String> roleIds) {
+        BitSet bits = new BitSet();
+        if (roleIds != null) {
+            for (String roleId : roleIds) {
+                bits.set(bitOf(roleId));
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Instantánea inmutable de los roles registrados y de su jerarquía.
+     *
+     * @param bitsByName     la posición de cada rol, indexada por nombre normalizado.
+     * @param rolesByBit     cada rol registrado, indexado por posición.
+     * @param activeBits     las posiciones de los roles activos; no debe modificarse una vez publicada.
+     * @param inheritedByBit los roles heredados directamente por cada rol, indexados por posición.
+     * @param closuresByBit  los roles heredados directa o indirectamente por cada rol activo, indexados por posición.
+     */
+    private record Snapshot(Map<String, Integer> bitsByName, Map<Integer, RoleDTO> rolesByBit, BitSet activeBits,
+                            Map<Integer, BitSet> inheritedByBit, Map<Integer, BitSet> closuresByBit) {
+
+        private boolean isUnchanged(int bit, String roleName, String status, BitSet inheritedBits) {
+            RoleDTO registered = rolesByBit.get(bit);
+            BitSet registeredInherited = inheritedByBit.getOrDefault(bit, new BitSet());
+            return registered != null
+                    && Objects.equals(registered.getRole(), roleName)
+                    && Objects.equals(registered.getStatus(), status)
+                    && registeredInherited.equals(inheritedBits != null ? inheritedBits : new BitSet());
+        }
+    }
+
+    /**
+     * Construye una nueva instantánea a partir de la actual, recalculando la clausura de la jerarquía.
+     */
+    private static class Builder {
+
+        private final Map<Integer, RoleDTO> rolesByBit;
+        private final Map<Integer, BitSet> inheritedByBit;
+
+        private Builder(Snapshot current) {
+            this.rolesByBit = new HashMap<>(current.rolesByBit());
+            this.inheritedByBit = new HashMap<>(current.inheritedByBit());
+        }
+
+        private void put(int bit, RoleDTO role, BitSet inheritedBits) {
+            rolesByBit.put(bit, role);
+            if (inheritedBits == null || inheritedBits.isEmpty()) {
+                inheritedByBit.remove(bit);
+            } else {
+                inheritedByBit.put(bit, inheritedBits);
+            }
+        }
+
+        private Snapshot build() {
+            Map<String, Integer> bitsByName = new HashMap<>();
+            BitSet activeBits = new BitSet();
+            rolesByBit.forEach((bit, role) -> {
+                String nameKey = KeyNormalizer.normalize(role.getRole());
+                if (nameKey != null) {
+                    bitsByName.put(nameKey, bit);
+                }
+                if (ACTIVE_STATUS.equalsIgnoreCase(role.getStatus())) {
+                    activeBits.set(bit);
+                }
+            });
+
+            Map<Integer, BitSet> closuresByBit = new HashMap<>();
+            for (Integer bit : inheritedByBit.keySet()) {
+                if (activeBits.get(bit)) {
+                    closuresByBit.put(bit, closureOf(bit, activeBits));
+                }
+            }
+            return new Snapshot(Map.copyOf(bitsByName), Map.copyOf(rolesByBit), activeBits,
+                    Map.copyOf(inheritedByBit), Map.copyOf(closuresByBit));
+        }
+
+        /**
+         * Calcula los roles heredados por un rol, recorriendo solo roles activos.
+         * El conjunto de visitados protege el recorrido ante ciclos cargados desde datos previos a la validación.
+         */
+        private BitSet closureOf(int rootBit, BitSet activeBits) {
+            BitSet closure = new BitSet();
+            Deque<Integer> pending = new ArrayDeque<>();
+            pending.push(rootBit);
+            while (!pending.isEmpty()) {
+                BitSet inherited = inheritedByBit.get(pending.pop());
+                if (inherited == null) {
+                    continue;
+                }
+                for (int next = inherited.nextSetBit(0); next >= 0; next = inherited.nextSetBit(next + 1)) {
+                    if (next != rootBit && activeBits.get(next) && !closure.get(next)) {
+                        closure.set(next);
+                        pending.push(next);
+                    }
+                }
+            }
+            return closure;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.diceprojects.msvcauthorization.cache;
+
+import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria, acotada y con expiración, de los detalles de usuario ya resueltos con sus roles.
+ * <p>
+ * Las entradas se indexan por nombre de usuario normalizado. Las operaciones que modifican a un usuario
+ * lo invalidan por nombre, y los cambios en un rol invalidan únicamente a los usuarios que tienen
+ * ese rol o un rol que lo hereda. Las estadísticas de la caché se publican como métricas.
+ * <p>
+ * Para evitar que una carga iniciada antes de una invalidación vuelva a almacenar datos obsoletos, cada carga
+ * obtiene una marca con {@link #token()} antes de consultar la base de datos y la entrega a
+ * {@link #put(CustomUserDetailsDTO, long)}. Cada invalidación registra una marca posterior, por nombre de usuario
+ * o global, y los resultados cargados con una marca anterior se descartan.
+ */
+@Component
+public class UserDetailsCache {
+
+    private final Cache<String, CustomUserDetailsDTO> usersByName;
+    private final Cache<String, Long> evictionStamps;
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicLong minimumValidToken = new AtomicLong();
+    private final RoleIndex roleIndex;
+
+    /**
+     * Constructor de UserDetailsCache.
+     *
+     * @param meterRegistry el registro de métricas donde se publican las estadísticas de la caché.
+     * @param roleIndex     el índice de roles usado para identificar a los usuarios que tienen un rol.
+     * @param maxSize       la cantidad máxima de usuarios que se mantienen en caché.
+     * @param ttl           el tiempo de vida de los detalles de un usuario en caché.
+     */
+    public UserDetailsCache(MeterRegistry meterRegistry, RoleIndex roleIndex,
+                            @Value("${msvc.cache.user-details.max-size:10000}") long maxSize,
+                            @Value("${msvc.cache.user-details.ttl:5m}") Duration ttl) {
+        this.roleIndex = roleIndex;
+        this.usersByName = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.evictionStamps = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .evictionListener((String username, Long stamp, RemovalCause cause) -> {
+                    if (stamp != null) {
+                        minimumValidToken.accumulateAndGet(stamp, Math::max);
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersByName, "userDetails");
+    }
+
+    /**
+     * Obtiene los detalles en caché de un usuario.
+     *
+     * @param username el nombre de usuario, sin distinguir mayúsculas y minúsculas.
+     * @return los detalles del usuario, o {@code null} si no están en caché.
+     */
+    public CustomUserDetailsDTO get(String username) {
+        return usersByName.getIfPresent(KeyNormalizer.normalize(username));
+    }
+
+    /**
+     * Obtiene la marca que debe capturarse antes de iniciar la carga de los detalles de un usuario.
+     *
+     * @return la marca actual de invalidación.
+     */
+    public long token() {
+        return clock.get();
+    }
+
+    /**
+     * Agrega o reemplaza los detalles de un usuario en caché, salvo que el usuario haya sido invalidado
+     * después de obtener la marca con la que se inició su carga.
+     *
+     * @param userDetails los detalles del usuario a almacenar.
+     * @param token       la marca obtenida con {@link #token()} antes de iniciar la carga.
+     */
+    public void put(CustomUserDetailsDTO userDetails, long token) {
+        String key = KeyNormalizer.normalize(userDetails.getUsername());
+        usersByName.asMap().compute(key, (k, current) -> isStale(k, token) ? current : userDetails);
+    }
+
+    /**
+     * Invalida los detalles en caché de un usuario.
+     *
+     * @param username el nombre de usuario a invalidar.
+     */
+    public void evict(String username) {
+        if (username != null) {
+            String key = KeyNormalizer.normalize(username);
+            evictionStamps.asMap().merge(key, clock.incrementAndGet(), Math::max);
+            usersByName.invalidate(key);
+        }
+    }
+
+    /**
+     * Invalida los detalles en caché de todos los usuarios.
+     */
+    public void evictAll() {
+        minimumValidToken.accumulateAndGet(clock.incrementAndGet(), Math::max);
+        usersByName.invalidateAll();
+    }
+
+    /**
+     * Invalida los detalles en caché de todos los usuarios que tienen asignado un rol, directamente
+     * o a través de un rol que lo hereda.
+     *
+     * @param roleId el ID del rol modificado.
+     */
+    public void evictByRoleId(String roleId) {
+        BitSet affectedBits = roleIndex.bitsInheriting(roleId);
+        minimumValidToken.accumulateAndGet(clock.incrementAndGet(), Math::max);
+        usersByName.asMap().values().removeIf(userDetails -> userDetails.getRoleBits().intersects(affectedBits));
+    }
+
+    /**
+     * Indica si una carga iniciada con la marca indicada es anterior a la última invalidación del usuario
+     * o a la última invalidación global.
+     *
+     * @param key   el nombre de usuario normalizado.
+     * @param token la marca obtenida antes de iniciar la carga.
+     * @return {@code true} si los detalles cargados pueden estar desactualizados.
+     */
+    private boolean isStale(String key, long token) {
+        if (token < minimumValidToken.get()) {
+            return true;
+        }
+        Long evictedAt = evictionStamps.getIfPresent(key);
+        return evictedAt != null && token < evictedAt;
+    }
+}
@@ -0,0 +1,29 @@
+package com.diceprojects.msvcauthorization.cache.invalidation;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bus que distribuye eventos de invalidación de cachés entre todas las instancias del servicio.
+ * <p>
+ * La implementación se selecciona con la propiedad {@code msvc.cache.invalidation.bus}: {@code memory}
+ * (por defecto) distribuye los eventos solo dentro del proceso, y {@code mongo} los distribuye a todas
+ * las instancias mediante un change stream de MongoDB.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Publica un evento de invalidación.
+     *
+     * @param event el evento a publicar.
+     * @return un {@link Mono} que completa cuando el evento fue publicado.
+     */
+    Mono<Void> publish(CacheInvalidationEvent event);
+
+    /**
+     * Obtiene el flujo de eventos publicados por cualquier instancia, incluida la actual.
+     *
+     * @return un {@link Flux} que emite los eventos a medida que se publican.
+     */
+    Flux<CacheInvalidationEvent> events();
+}
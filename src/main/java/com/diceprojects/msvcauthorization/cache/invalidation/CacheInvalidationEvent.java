@@ -0,0 +1,64 @@
+package com.diceprojects.msvcauthorization.cache.invalidation;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Evento de invalidación de cachés publicado tras una escritura, para que todas las instancias descarten
+ * los datos afectados.
+ * <p>
+ * Cuando se usa el bus sobre MongoDB, los eventos se persisten en una colección con expiración automática,
+ * ya que solo se necesitan mientras se distribuyen por el change stream.
+ */
+@Document(collection = "cacheInvalidationEvents")
+@Getter
+@Setter
+@NoArgsConstructor
+public class CacheInvalidationEvent {
+
+    /**
+     * Tipo de dato afectado por el evento.
+     */
+    public enum Type {
+        /**
+         * Los detalles de uno o más usuarios cambiaron; las claves son nombres de usuario.
+         */
+        USER,
+        /**
+         * Un rol cambió; la clave es el ID del rol.
+         */
+        ROLE
+    }
+
+    @Id
+    private String id;
+    private Type type;
+    private List<String> keys;
+    /**
+     * Identificador de la instancia que publicó el evento, que ya aplicó la invalidación localmente.
+     */
+    private String origin;
+    @Indexed(expireAfter = "1h")
+    private Date createDate;
+
+    /**
+     * Constructor para inicializar un evento.
+     *
+     * @param type   el tipo de dato afectado.
+     * @param keys   las claves de los datos afectados.
+     * @param origin el identificador de la instancia que publica el evento.
+     */
+    public CacheInvalidationEvent(Type type, List<String> keys, String origin) {
+        this.type = type;
+        this.keys = keys;
+        this.origin = origin;
+        this.createDate = new Date();
+    }
+}
@@ -0,0 +1,173 @@
+package com.diceprojects.msvcauthorization.cache.invalidation;
+
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.RoleCache;
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
+import com.diceprojects.msvcauthorization.cache.UserDetailsCache;
+import com.diceprojects.msvcauthorization.persistences.repositories.RoleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Aplica sobre las cachés de esta instancia los eventos de invalidación publicados por otras instancias.
+ * <p>
+ * Un cambio de usuario invalida sus detalles y sus decisiones de autorización. Un cambio de rol vuelve a leer
+ * el rol desde MongoDB para actualizar la caché de roles y el índice de roles, incluida su jerarquía, e invalida
+ * a los usuarios afectados y todas las decisiones de autorización. Si la suscripción al bus se interrumpe,
+ * se reintenta, se vacían las cachés y se recarga la jerarquía completa en el índice de roles, ya que los eventos
+ * emitidos durante la interrupción se pierden.
+ * Los eventos aplicados se contabilizan en la métrica {@code cache.invalidation.events}.
+ */
+@Component
+public class CacheInvalidationListener implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    private final CacheInvalidationBus bus;
+    private final String nodeId;
+    private final RoleRepository roleRepository;
+    private final RoleCache roleCache;
+    private final RoleIndex roleIndex;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthorizationDecisionCache decisionCache;
+    private final Counter userEventsCounter;
+    private final Counter roleEventsCounter;
+    private Disposable subscription;
+
+    /**
+     * Constructor de CacheInvalidationListener.
+     *
+     * @param bus              el bus de invalidación de cachés.
+     * @param publisher        el publicador de eventos, del que se obtiene el identificador de esta instancia.
+     * @param roleRepository   el repositorio de roles, para recargar los roles modificados.
+     * @param roleCache        la caché de roles.
+     * @param roleIndex        el índice de roles, que se recarga por completo al reanudar la suscripción.
+     * @param userDetailsCache la caché de detalles de usuario.
+     * @param decisionCache    la caché de decisiones de autorización.
+     * @param meterRegistry    el registro de métricas donde se publican los eventos aplicados.
+     */
+    public CacheInvalidationListener(CacheInvalidationBus bus, CacheInvalidationPublisher publisher, RoleRepository roleRepository,
+                                     RoleCache roleCache, RoleIndex roleIndex, UserDetailsCache userDetailsCache,
+                                     AuthorizationDecisionCache decisionCache, MeterRegistry meterRegistry) {
+        this.bus = bus;
+        this.nodeId = publisher.getNodeId();
+        this.roleRepository = roleRepository;
+        this.roleCache = roleCache;
+        this.roleIndex = roleIndex;
+        this.userDetailsCache = userDetailsCache;
+        this.decisionCache = decisionCache;
+        this.userEventsCounter = Counter.builder("cache.invalidation.events")
+                .tag("type", "user")
+                .description("Eventos de invalidación recibidos de otras instancias y aplicados")
+                .register(meterRegistry);
+        this.roleEventsCounter = Counter.builder("cache.invalidation.events")
+                .tag("type", "role")
+                .description("Eventos de invalidación recibidos de otras instancias y aplicados")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Se suscribe al bus al iniciar la aplicación.
+     */
+    @Override
+    public void afterPropertiesSet() {
+        subscription = bus.events()
+                .filter(event -> !nodeId.equals(event.getOrigin()))
+                .concatMap(event -> apply(event)
+                        .onErrorResume(e -> {
+                            logger.warn("No se pudo aplicar el evento de invalidación {} {}", event.getType(), event.getKeys(), e);
+                            return Mono.empty();
+                        }))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .doBeforeRetryAsync(signal -> {
+                            logger.warn("Se interrumpió la suscripción al bus de invalidación, reintentando", signal.failure());
+                            evictAll();
+                            return reloadRoleHierarchy();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Aplica un evento de invalidación sobre las cachés locales.
+     *
+     * @param event el evento recibido.
+     * @return un {@link Mono} que completa cuando el evento fue aplicado.
+     */
+    private Mono<Void> apply(CacheInvalidationEvent event) {
+        if (event.getType() == CacheInvalidationEvent.Type.USER) {
+            userEventsCounter.increment();
+            event.getKeys().forEach(username -> {
+                userDetailsCache.evict(username);
+                decisionCache.evictUser(username);
+            });
+            return Mono.empty();
+        }
+
+        roleEventsCounter.increment();
+        String roleId = event.getKeys().get(0);
+        return Mono.defer(() -> {
+                    roleCache.evictById(roleId);
+                    long cacheToken = roleCache.token();
+                    return roleRepository.findById(roleId)
+                            .doOnNext(role -> roleCache.put(role, cacheToken));
+                })
+                .doOnSuccess(role -> {
+                    userDetailsCache.evictByRoleId(roleId);
+                    decisionCache.evictAll();
+                })
+                .then();
+    }
+
+    /**
+     * Vacía todas las cachés locales afectadas por los eventos de invalidación.
+     */
+    private void evictAll() {
+        roleCache.evictAll();
+        userDetailsCache.evictAll();
+        decisionCache.evictAll();
+    }
+
+    /**
+     * Recarga todos los roles en el índice de roles, ya que los cambios de roles y de herencia realizados
+     * durante la interrupción no se recibieron. Al completar se vuelven a vaciar los detalles de usuario
+     * y las decisiones de autorización resueltos con el índice anterior. Un error en la recarga se registra
+     * y no impide reanudar la suscripción.
+     *
+     * @return un {@link Mono} que completa cuando la jerarquía fue recargada o la recarga falló.
+     */
+    private Mono<Void> reloadRoleHierarchy() {
+        return roleRepository.findAll()
+                .collectList()
+                .doOnNext(roles -> {
+                    roleIndex.registerAll(roles);
+                    userDetailsCache.evictAll();
+                    decisionCache.evictAll();
+                })
+                .then()
+                .onErrorResume(e -> {
+                    logger.warn("No se pudo recargar la jerarquía de roles tras la interrupción del bus de invalidación", e);
+                    return Mono.empty();
+                });
+    }
+
+    /**
+     * Cancela la suscripción al bus al detener la aplicación.
+     */
+    @Override
+    public void destroy() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+}
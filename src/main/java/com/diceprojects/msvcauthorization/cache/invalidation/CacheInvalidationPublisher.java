@@ -0,0 +1,73 @@
+package com.diceprojects.msvcauthorization.cache.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Publica en el {@link CacheInvalidationBus} los cambios realizados por los métodos de escritura de los servicios.
+ * <p>
+ * La publicación se realiza en segundo plano: un error al publicar se registra, pero no hace fallar la escritura.
+ * Cada evento lleva el identificador de esta instancia, para que {@link CacheInvalidationListener} no vuelva
+ * a aplicar localmente un cambio que el servicio ya invalidó.
+ */
+@Component
+public class CacheInvalidationPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationPublisher.class);
+
+    private final CacheInvalidationBus bus;
+    private final String nodeId;
+
+    /**
+     * Constructor de CacheInvalidationPublisher.
+     *
+     * @param bus    el bus de invalidación de cachés.
+     * @param nodeId el identificador de esta instancia; por defecto, un UUID aleatorio por ejecución.
+     */
+    public CacheInvalidationPublisher(CacheInvalidationBus bus,
+                                      @Value("${msvc.cache.invalidation.node-id:${random.uuid}}") String nodeId) {
+        this.bus = bus;
+        this.nodeId = nodeId;
+    }
+
+    /**
+     * Obtiene el identificador de esta instancia.
+     *
+     * @return el identificador de la instancia.
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Publica que los detalles o los roles de uno o más usuarios cambiaron.
+     *
+     * @param usernames los nombres de usuario afectados.
+     */
+    public void usersChanged(Collection<String> usernames) {
+        if (!usernames.isEmpty()) {
+            publish(new CacheInvalidationEvent(CacheInvalidationEvent.Type.USER, List.copyOf(usernames), nodeId));
+        }
+    }
+
+    /**
+     * Publica que un rol fue creado o modificado.
+     *
+     * @param roleId el ID del rol afectado.
+     */
+    public void roleChanged(String roleId) {
+        publish(new CacheInvalidationEvent(CacheInvalidationEvent.Type.ROLE, List.of(roleId), nodeId));
+    }
+
+    private void publish(CacheInvalidationEvent event) {
+        bus.publish(event).subscribe(
+                null,
+                error -> logger.warn("No se pudo publicar el evento de invalidación {} {}", event.getType(), event.getKeys(), error)
+        );
+    }
+}
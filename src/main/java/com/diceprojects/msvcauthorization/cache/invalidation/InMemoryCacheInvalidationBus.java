@@ -0,0 +1,36 @@
+package com.diceprojects.msvcauthorization.cache.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+
+/**
+ * Implementación en memoria de {@link CacheInvalidationBus}, que distribuye los eventos solo dentro del proceso.
+ * Es la implementación por defecto, pensada para desarrollo, pruebas y despliegues de una sola instancia.
+ */
+@Component
+@ConditionalOnProperty(name = "msvc.cache.invalidation.bus", havingValue = "memory", matchIfMissing = true)
+public class InMemoryCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final Sinks.Many<CacheInvalidationEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> publish(CacheInvalidationEvent event) {
+        return Mono.fromRunnable(() -> sink.emitNext(event, Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100))));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<CacheInvalidationEvent> events() {
+        return sink.asFlux();
+    }
+}
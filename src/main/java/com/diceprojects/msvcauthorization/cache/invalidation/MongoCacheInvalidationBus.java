@@ -0,0 +1,56 @@
+package com.diceprojects.msvcauthorization.cache.invalidation;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Implementación de {@link CacheInvalidationBus} sobre MongoDB, que distribuye los eventos a todas las instancias.
+ * <p>
+ * Cada evento se inserta en la colección de eventos de invalidación y cada instancia lo recibe a través de un
+ * change stream sobre las inserciones de esa colección. Requiere que MongoDB se ejecute como replica set.
+ */
+@Component
+@ConditionalOnProperty(name = "msvc.cache.invalidation.bus", havingValue = "mongo")
+public class MongoCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    /**
+     * Constructor de MongoCacheInvalidationBus.
+     *
+     * @param reactiveMongoTemplate la plantilla reactiva de MongoDB.
+     */
+    public MongoCacheInvalidationBus(ReactiveMongoTemplate reactiveMongoTemplate) {
+        this.reactiveMongoTemplate = reactiveMongoTemplate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> publish(CacheInvalidationEvent event) {
+        return reactiveMongoTemplate.insert(event).then();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<CacheInvalidationEvent> events() {
+        ChangeStreamOptions options = ChangeStreamOptions.builder()
+                .filter(newAggregation(match(where("operationType").is("insert"))))
+                .build();
+        return reactiveMongoTemplate.changeStream(
+                        reactiveMongoTemplate.getCollectionName(CacheInvalidationEvent.class), options, CacheInvalidationEvent.class)
+                .mapNotNull(ChangeStreamEvent::getBody);
+    }
+}
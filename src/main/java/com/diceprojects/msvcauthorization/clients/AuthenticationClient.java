@@ -1,14 +1,13 @@
 package com.diceprojects.msvcauthorization.clients;
 
 import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
-import io.netty.handler.logging.LogLevel;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
-import reactor.netty.transport.logging.AdvancedByteBufFormat;
+
+import java.time.Duration;
 
 /**
  * Cliente para comunicarse con el microservicio de msvc-authentication.
@@ -21,17 +20,19 @@ public class AuthenticationClient {
     /**
      * Constructor de AuthenticationClient.
      *
+     * @param webClientFactory la fábrica de clientes salientes con el pool de conexiones compartido.
      * @param authenticationServiceUrl la URL base del servicio de autenticación, inyectada desde el archivo de configuración.
+     * @param connectTimeout el tiempo máximo para establecer una conexión con el servicio.
+     * @param responseTimeout el tiempo máximo de espera de cada respuesta del servicio.
+     * @param mediaType el formato de los mensajes: {@code application/json} (por defecto), {@code application/cbor}
+     *                  o {@code application/x-jackson-smile}, según lo que admita el servicio de autenticación.
      */
-    public AuthenticationClient(@Value("${msvc.authentication.url}") String authenticationServiceUrl) {
-        this.webClient = WebClient.builder()
-                .baseUrl(authenticationServiceUrl)
-                .clientConnector(new ReactorClientHttpConnector(
-                        HttpClient.create()
-                                .compress(true)
-                                .wiretap("reactor.netty.client.HttpClient", LogLevel.DEBUG, AdvancedByteBufFormat.TEXTUAL)
-                ))
-                .build();
+    public AuthenticationClient(OutboundWebClientFactory webClientFactory,
+                                @Value("${msvc.authentication.url}") String authenticationServiceUrl,
+                                @Value("${msvc.authentication.connect-timeout:2s}") Duration connectTimeout,
+                                @Value("${msvc.authentication.response-timeout:5s}") Duration responseTimeout,
+                                @Value("${msvc.authentication.media-type:application/json}") String mediaType) {
+        this.webClient = webClientFactory.create(authenticationServiceUrl, connectTimeout, responseTimeout, MediaType.parseMediaType(mediaType));
     }
 
     /**
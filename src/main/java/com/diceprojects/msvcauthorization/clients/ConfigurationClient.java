@@ -1,15 +1,14 @@
 package com.diceprojects.msvcauthorization.clients;
 
 import com.diceprojects.msvcauthorization.persistences.models.dtos.ParameterDTO;
-import io.netty.handler.logging.LogLevel;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
-import reactor.netty.transport.logging.AdvancedByteBufFormat;
+
+import java.time.Duration;
 
 /**
  * Cliente para comunicarse con el microservicio de msvc-configurations.
@@ -18,21 +17,25 @@ import reactor.netty.transport.logging.AdvancedByteBufFormat;
 public class ConfigurationClient {
 
     private final WebClient webClient;
+    private final MediaType mediaType;
 
     /**
      * Constructor de ConfigurationClient.
      *
+     * @param webClientFactory la fábrica de clientes salientes con el pool de conexiones compartido.
      * @param configurationsServiceUrl la URL base del servicio de configuraciones, inyectada desde el archivo de configuración.
+     * @param connectTimeout el tiempo máximo para establecer una conexión con el servicio.
+     * @param responseTimeout el tiempo máximo de espera de cada respuesta del servicio.
+     * @param mediaType el formato de los mensajes: {@code application/json} (por defecto), {@code application/cbor}
+     *                  o {@code application/x-jackson-smile}, según lo que admita el servicio de configuraciones.
      */
-    public ConfigurationClient(@Value("${msvc.configurations.url}") String configurationsServiceUrl) {
-        this.webClient = WebClient.builder()
-                .baseUrl(configurationsServiceUrl)
-                .clientConnector(new ReactorClientHttpConnector(
-                        HttpClient.create()
-                                .compress(true)
-                                .wiretap("reactor.netty.client.HttpClient", LogLevel.DEBUG, AdvancedByteBufFormat.TEXTUAL)
-                ))
-                .build();
+    public ConfigurationClient(OutboundWebClientFactory webClientFactory,
+                               @Value("${msvc.configurations.url}") String configurationsServiceUrl,
+                               @Value("${msvc.configurations.connect-timeout:2s}") Duration connectTimeout,
+                               @Value("${msvc.configurations.response-timeout:5s}") Duration responseTimeout,
+                               @Value("${msvc.configurations.media-type:application/json}") String mediaType) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.webClient = webClientFactory.create(configurationsServiceUrl, connectTimeout, responseTimeout, this.mediaType);
     }
 
     /**
@@ -57,6 +60,7 @@ public class ConfigurationClient {
     public Mono<ParameterDTO> saveOrUpdateParameter(ParameterDTO parameter) {
         return webClient.post()
                 .uri("/parameters")
+                .contentType(mediaType)
                 .bodyValue(parameter)
                 .retrieve()
                 .bodyToMono(ParameterDTO.class);
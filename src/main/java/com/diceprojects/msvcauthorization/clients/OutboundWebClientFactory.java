@@ -0,0 +1,72 @@
+package com.diceprojects.msvcauthorization.clients;
+
+import com.diceprojects.msvcauthorization.config.BinaryCodecs;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.logging.LogLevel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.logging.AdvancedByteBufFormat;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Construye los {@link WebClient} de los clientes hacia otros microservicios sobre una configuración común.
+ * <p>
+ * Todos los clientes comparten el pool de conexiones de {@link WebClientConfig} y parten del
+ * {@link WebClient.Builder} de Spring Boot, que registra métricas de latencia por endpoint. Cada cliente define
+ * sus propios tiempos máximos de conexión y de respuesta. El registro detallado del tráfico (wiretap) está
+ * desactivado por defecto y se habilita con {@code msvc.http.client.wiretap=true}.
+ */
+@Component
+public class OutboundWebClientFactory {
+
+    private final WebClient.Builder webClientBuilder;
+    private final ConnectionProvider connectionProvider;
+    private final boolean wiretap;
+
+    /**
+     * Constructor de OutboundWebClientFactory.
+     *
+     * @param webClientBuilder   el builder de WebClient autoconfigurado.
+     * @param connectionProvider el pool de conexiones compartido.
+     * @param wiretap            {@code true} para registrar en DEBUG el contenido de cada solicitud y respuesta.
+     */
+    public OutboundWebClientFactory(WebClient.Builder webClientBuilder, ConnectionProvider connectionProvider,
+                                    @Value("${msvc.http.client.wiretap:false}") boolean wiretap) {
+        this.webClientBuilder = webClientBuilder;
+        this.connectionProvider = connectionProvider;
+        this.wiretap = wiretap;
+    }
+
+    /**
+     * Construye un cliente para un servicio remoto.
+     *
+     * @param baseUrl         la URL base del servicio.
+     * @param connectTimeout  el tiempo máximo para establecer una conexión.
+     * @param responseTimeout el tiempo máximo de espera de la respuesta de cada solicitud.
+     * @param mediaType       el formato aceptado en las respuestas.
+     * @return el cliente configurado.
+     */
+    public WebClient create(String baseUrl, Duration connectTimeout, Duration responseTimeout, MediaType mediaType) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(connectTimeout.toMillis()))
+                .responseTimeout(responseTimeout);
+        if (wiretap) {
+            httpClient = httpClient.wiretap("reactor.netty.client.HttpClient", LogLevel.DEBUG, AdvancedByteBufFormat.TEXTUAL);
+        }
+
+        return webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .codecs(BinaryCodecs::register)
+                .defaultHeaders(headers -> headers.setAccept(List.of(mediaType)))
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+}
@@ -1,29 +1,47 @@
 package com.diceprojects.msvcauthorization.clients;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 /**
- * Configuración para el cliente WebClient utilizado en la aplicación.
+ * Configuración del pool de conexiones compartido por los clientes HTTP hacia otros microservicios.
  * <p>
- * Esta clase define un bean de {@link WebClient.Builder} que se puede inyectar en otros componentes de Spring
- * para construir instancias de {@link WebClient}, lo que permite realizar solicitudes HTTP de manera reactiva.
+ * Los clientes se construyen con {@link OutboundWebClientFactory} a partir del {@code WebClient.Builder}
+ * autoconfigurado por Spring Boot, que publica la latencia de cada solicitud en la métrica
+ * {@code http.client.requests}, etiquetada por plantilla de URI. El pool publica sus conexiones totales,
+ * activas, inactivas y pendientes en las métricas {@code reactor.netty.connection.provider.*}.
  */
 @Configuration
 public class WebClientConfig {
 
     /**
-     * Define un bean de {@link WebClient.Builder}.
-     * <p>
-     * Este bean proporciona un {@link WebClient.Builder} configurado, que se puede utilizar para construir
-     * instancias de {@link WebClient} en diferentes partes de la aplicación.
+     * Define el pool de conexiones compartido por los clientes salientes.
+     * El límite de conexiones se aplica por cada servicio remoto.
      *
-     * @return una instancia de {@link WebClient.Builder}.
+     * @param maxConnections        la cantidad máxima de conexiones por servicio remoto.
+     * @param pendingAcquireTimeout el tiempo máximo de espera para obtener una conexión del pool.
+     * @param maxIdleTime           el tiempo máximo que una conexión puede permanecer inactiva en el pool.
+     * @param maxLifeTime           el tiempo de vida máximo de una conexión.
+     * @param evictionInterval      el intervalo con el que se eliminan en segundo plano las conexiones vencidas.
+     * @return el pool de conexiones.
      */
-    @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider outboundConnectionProvider(@Value("${msvc.http.client.max-connections:100}") int maxConnections,
+                                                         @Value("${msvc.http.client.pending-acquire-timeout:5s}") Duration pendingAcquireTimeout,
+                                                         @Value("${msvc.http.client.max-idle-time:30s}") Duration maxIdleTime,
+                                                         @Value("${msvc.http.client.max-life-time:5m}") Duration maxLifeTime,
+                                                         @Value("${msvc.http.client.eviction-interval:30s}") Duration evictionInterval) {
+        return ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(evictionInterval)
+                .metrics(true)
+                .build();
     }
 }
-
@@ -0,0 +1,125 @@
+package com.diceprojects.msvcauthorization.config;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registra los codecs binarios CBOR ({@code application/cbor}) y Smile ({@code application/x-jackson-smile})
+ * en los servidores y clientes HTTP de la aplicación.
+ * <p>
+ * Los codecs binarios se registran después de los de JSON, por lo que JSON sigue siendo el formato por defecto
+ * y CBOR o Smile solo se usan cuando el cliente los solicita con {@code Accept} o los envía con {@code Content-Type}.
+ * Están pensados para el tráfico entre microservicios, donde reducen el tamaño de los mensajes y el costo de serialización.
+ */
+public final class BinaryCodecs {
+
+    /**
+     * Tipo de contenido de Smile, para usar en {@code produces} junto a {@link org.springframework.http.MediaType#APPLICATION_CBOR_VALUE}.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    private BinaryCodecs() {
+    }
+
+    /**
+     * Registra los codecs CBOR y Smile en un configurador de codecs de servidor o de cliente.
+     *
+     * @param configurer el configurador de codecs.
+     */
+    public static void register(CodecConfigurer configurer) {
+        configurer.defaultCodecs().jackson2SmileEncoder(new CollectingJackson2SmileEncoder());
+        configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder());
+        // Los codecs personalizados se ordenan antes que los por defecto: se registra primero el de JSON
+        // para que siga siendo el elegido cuando la solicitud acepta cualquier formato.
+        configurer.customCodecs().registerWithDefaultConfig(new Jackson2JsonEncoder());
+        configurer.customCodecs().registerWithDefaultConfig(new CollectingJackson2CborEncoder());
+        configurer.customCodecs().registerWithDefaultConfig(new CollectingJackson2CborDecoder());
+    }
+
+    /**
+     * Codifica un valor individual, o los elementos de un flujo como un único arreglo.
+     *
+     * @param encoder       el codificador de Jackson.
+     * @param inputStream   el valor o flujo a codificar.
+     * @param bufferFactory la fábrica de buffers.
+     * @param elementType   el tipo de cada elemento.
+     * @param mimeType      el tipo de contenido.
+     * @param hints         las opciones de codificación.
+     * @return un {@link Flux} con el buffer codificado.
+     */
+    private static Flux<DataBuffer> encodeCollected(AbstractJackson2Encoder encoder, Publisher<?> inputStream,
+                                                    DataBufferFactory bufferFactory, ResolvableType elementType,
+                                                    MimeType mimeType, Map<String, Object> hints) {
+        if (inputStream instanceof Mono<?> mono) {
+            return mono.map(value -> encoder.encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+        }
+        ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+        return Flux.from(inputStream)
+                .collectList()
+                .map(values -> encoder.encodeValue(values, bufferFactory, listType, mimeType, hints))
+                .flux();
+    }
+
+    /**
+     * Codificador CBOR que también admite flujos de varios elementos, codificándolos como un único arreglo.
+     * {@link Jackson2CborEncoder} solo admite valores individuales, y los endpoints que devuelven un {@link Flux}
+     * fallarían al solicitarse en CBOR.
+     */
+    private static class CollectingJackson2CborEncoder extends Jackson2CborEncoder {
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                       MimeType mimeType, Map<String, Object> hints) {
+            return encodeCollected(this, inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+
+    /**
+     * Codificador Smile que codifica los flujos de varios elementos como un único arreglo.
+     * {@link Jackson2SmileEncoder} une los elementos con separadores de arreglo de JSON en texto, lo que no produce
+     * un documento Smile válido; el tipo de streaming de Smile se mantiene sin cambios.
+     */
+    private static class CollectingJackson2SmileEncoder extends Jackson2SmileEncoder {
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory, ResolvableType elementType,
+                                       MimeType mimeType, Map<String, Object> hints) {
+            if (mimeType != null && getStreamingMediaTypes().stream().anyMatch(mimeType::equalsTypeAndSubtype)) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            return encodeCollected(this, inputStream, bufferFactory, elementType, mimeType, hints);
+        }
+    }
+
+    /**
+     * Decodificador CBOR que también admite flujos de varios elementos, leyendo el cuerpo completo como un arreglo.
+     * {@link Jackson2CborDecoder} solo admite valores individuales, y los clientes que leen un {@link Flux}
+     * fallarían al recibir una respuesta en CBOR.
+     */
+    private static class CollectingJackson2CborDecoder extends Jackson2CborDecoder {
+
+        @Override
+        public Flux<Object> decode(Publisher<DataBuffer> inputStream, ResolvableType elementType,
+                                   MimeType mimeType, Map<String, Object> hints) {
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return DataBufferUtils.join(inputStream, getMaxInMemorySize())
+                    .flatMapIterable(buffer -> (List<?>) decode(buffer, listType, mimeType, hints));
+        }
+    }
+}
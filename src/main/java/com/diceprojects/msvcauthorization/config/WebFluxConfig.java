@@ -1,8 +1,16 @@
 package com.diceprojects.msvcauthorization.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.codec.ServerCodecConfigurer;
 import org.springframework.web.reactive.config.EnableWebFlux;
 import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.server.WebFilter;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Configuración de Spring WebFlux para el proyecto.
@@ -16,5 +24,39 @@ import org.springframework.web.reactive.config.WebFluxConfigurer;
 @Configuration
 @EnableWebFlux
 public class WebFluxConfig implements WebFluxConfigurer {
+
+    /**
+     * Registra los codecs CBOR y Smile en el servidor, además de los codecs por defecto.
+     * JSON sigue siendo el formato por defecto cuando el cliente no solicita otro.
+     *
+     * @param configurer el configurador de codecs del servidor.
+     */
+    @Override
+    public void configureHttpMessageCodecs(ServerCodecConfigurer configurer) {
+        BinaryCodecs.register(configurer);
+    }
+
+    /**
+     * Agrega {@code Vary: Accept} a todas las respuestas. Como los codecs se registran de forma global, cualquier
+     * endpoint puede responder en JSON, CBOR o Smile según {@code Accept}, y las cachés compartidas deben distinguir
+     * esas representaciones, incluso en las respuestas 304 a solicitudes condicionales por ETag.
+     *
+     * @return el filtro que agrega el encabezado antes de enviar la respuesta.
+     */
+    @Bean
+    public WebFilter varyByAcceptFilter() {
+        return (exchange, chain) -> {
+            exchange.getResponse().beforeCommit(() -> {
+                HttpHeaders headers = exchange.getResponse().getHeaders();
+                if (!headers.getVary().contains(HttpHeaders.ACCEPT)) {
+                    List<String> vary = new ArrayList<>(headers.getVary());
+                    vary.add(HttpHeaders.ACCEPT);
+                    headers.setVary(vary);
+                }
+                return Mono.empty();
+            });
+            return chain.filter(exchange);
+        };
+    }
 }
 
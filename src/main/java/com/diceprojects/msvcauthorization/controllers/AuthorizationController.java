@@ -0,0 +1,37 @@
+package com.diceprojects.msvcauthorization.controllers;
+
+import com.diceprojects.msvcauthorization.persistences.models.dtos.AuthorizationDecisionDTO;
+import com.diceprojects.msvcauthorization.services.AuthorizationService;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Controlador para resolver decisiones de autorización.
+ */
+@RestController
+@RequestMapping("/api")
+public class AuthorizationController {
+
+    private final AuthorizationService authorizationService;
+
+    public AuthorizationController(AuthorizationService authorizationService) {
+        this.authorizationService = authorizationService;
+    }
+
+    /**
+     * Decide si un usuario tiene un rol, o al menos uno de varios roles.
+     *
+     * @param user el nombre de usuario
+     * @param role el rol requerido, si no se indica anyOf
+     * @param anyOf los roles de los cuales el usuario debe tener al menos uno, separados por comas, si no se indica role
+     * @return un {@link Mono} que emite la decisión de autorización
+     */
+    @GetMapping("/authorize")
+    public Mono<AuthorizationDecisionDTO> authorize(@RequestParam String user,
+                                                    @RequestParam(required = false) String role,
+                                                    @RequestParam(required = false) List<String> anyOf) {
+        return authorizationService.authorize(user, role, anyOf);
+    }
+}
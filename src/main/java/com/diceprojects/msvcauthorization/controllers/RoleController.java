@@ -1,13 +1,23 @@
 package com.diceprojects.msvcauthorization.controllers;
 
+import com.diceprojects.msvcauthorization.config.BinaryCodecs;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.CreateRoleDTO;
 import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
 import com.diceprojects.msvcauthorization.services.RoleService;
+import com.diceprojects.msvcauthorization.utils.ETags;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Set;
+
 /**
  * Controlador para manejar las solicitudes relacionadas con los roles.
  */
@@ -50,11 +60,13 @@ public class RoleController {
      * @param roleId el ID del rol a actualizar
      * @param roleName el nuevo nombre del rol
      * @param description la nueva descripción del rol, opcional
+     * @param inheritedRoleIds los IDs de los roles que hereda, opcional; si se omite se conservan los actuales
      * @return un Mono que emite el rol actualizado
      */
     @PutMapping("/update/{roleId}")
-    public Mono<Role> update(@PathVariable String roleId, @RequestParam String roleName, @RequestParam(required = false, defaultValue = "") String description) {
-        return roleService.updateRole(roleId, roleName, description);
+    public Mono<Role> update(@PathVariable String roleId, @RequestParam String roleName, @RequestParam(required = false, defaultValue = "") String description,
+                             @RequestParam(required = false) Set<String> inheritedRoleIds) {
+        return roleService.updateRole(roleId, roleName, description, inheritedRoleIds);
     }
 
     /**
@@ -70,24 +82,68 @@ public class RoleController {
     }
 
     /**
-     * Lista todos los roles.
+     * Lista una página de roles ordenados por ID.
+     * Si la página está completa, la respuesta incluye un encabezado {@code Link} con {@code rel="next"} que apunta
+     * a la página siguiente, usando como {@code after} el ID del último rol recibido. Sin {@code size}, la página
+     * tiene el tamaño por defecto configurado, por lo que los clientes deben seguir ese enlace para obtener todos los roles.
+     * La respuesta incluye un ETag de la página; si coincide con {@code If-None-Match} se responde 304 sin cuerpo.
+     * Se responde en JSON, CBOR o Smile según {@code Accept}, por lo que la respuesta incluye {@code Vary: Accept}.
+     *
+     * @param after el ID del último rol de la página anterior, opcional
+     * @param size el tamaño de la página, opcional
+     * @param status el estado por el que filtrar los roles, opcional
+     * @param request la solicitud, usada para construir el enlace a la página siguiente
+     * @return un Mono que emite la respuesta con los roles de la página, su ETag y el enlace a la página siguiente
+     */
+    @GetMapping(value = "/listRoles", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            BinaryCodecs.APPLICATION_SMILE_VALUE})
+    public Mono<ResponseEntity<List<Role>>> listRoles(@RequestParam(required = false) String after,
+                                                      @RequestParam(required = false) Integer size,
+                                                      @RequestParam(required = false) String status,
+                                                      ServerHttpRequest request) {
+        int pageSize = roleService.resolvePageSize(size);
+        return roleService.listRoles(after, status, size)
+                .collectList()
+                .map(roles -> {
+                    ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(ETags.forRoles(roles));
+                    if (roles.size() == pageSize) {
+                        String next = UriComponentsBuilder.fromPath(request.getPath().value())
+                                .query(request.getURI().getRawQuery())
+                                .replaceQueryParam("after", roles.get(roles.size() - 1).getId())
+                                .build()
+                                .toUriString();
+                        response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+                    }
+                    return response.body(roles);
+                });
+    }
+
+    /**
+     * Emite los roles ordenados por ID en formato NDJSON, un rol por línea, a medida que se leen de la base de datos.
      *
-     * @return un Flux que emite todos los roles
+     * @param after el ID a partir del cual comenzar, opcional
+     * @param size la cantidad máxima de roles a emitir, opcional; por defecto se emiten todos
+     * @param status el estado por el que filtrar los roles, opcional
+     * @return un Flux que emite los roles en streaming
      */
-    @GetMapping("/listRoles")
-    public Flux<Role> listRoles() {
-        return roleService.listRoles();
+    @GetMapping(value = "/listRoles", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Role> streamRoles(@RequestParam(required = false) String after,
+                                  @RequestParam(required = false) Integer size,
+                                  @RequestParam(required = false) String status) {
+        return roleService.streamRoles(after, status, size);
     }
 
     /**
      * Obtiene el rol por defecto para los usuarios.
+     * La respuesta incluye un ETag del rol; si coincide con {@code If-None-Match} se responde 304 sin cuerpo.
+     * Como el formato se negocia según {@code Accept}, la respuesta incluye {@code Vary: Accept}.
      *
      * @return un {@link Mono} que emite el rol por defecto si existe, de lo contrario, emite un error 404.
      */
     @GetMapping("/default")
-    @ResponseStatus(HttpStatus.OK)
-    public Mono<Role> getDefaultUserRole() {
-        return roleService.getDefaultUserRole();
+    public Mono<ResponseEntity<Role>> getDefaultUserRole() {
+        return roleService.getDefaultUserRole()
+                .map(role -> ResponseEntity.ok().eTag(ETags.forRole(role)).body(role));
     }
 
 }
@@ -1,10 +1,21 @@
 package com.diceprojects.msvcauthorization.controllers;
 
+import com.diceprojects.msvcauthorization.persistences.models.dtos.BulkRoleAssignmentRequest;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.LoginRequest;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleAssignmentResultDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserBatchRequest;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.UserDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserImportResultDTO;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserSummary;
+import com.diceprojects.msvcauthorization.services.UserImportService;
 import com.diceprojects.msvcauthorization.services.UserService;
+import com.diceprojects.msvcauthorization.utils.ETags;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -15,20 +26,57 @@ import reactor.core.publisher.Mono;
 public class UserController {
 
     private final UserService userService;
+    private final UserImportService userImportService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, UserImportService userImportService) {
         this.userService = userService;
+        this.userImportService = userImportService;
+    }
+
+    /**
+     * Busca usuarios por prefijo de nombre de usuario, estado y rol, ordenados por nombre de usuario sin distinguir
+     * mayúsculas y minúsculas.
+     * Para obtener la página siguiente se envía como {@code after} el nombre de usuario del último resultado recibido.
+     *
+     * @param prefix el prefijo del nombre de usuario, opcional
+     * @param status el estado de los usuarios, opcional
+     * @param roleId el ID de un rol asignado a los usuarios, opcional
+     * @param after el nombre de usuario del último resultado de la página anterior, opcional
+     * @param size el tamaño de la página, opcional
+     * @return un {@link Flux} que emite el resumen de los usuarios encontrados, sin contraseña ni token
+     */
+    @GetMapping("/search")
+    public Flux<UserSummary> searchUsers(@RequestParam(required = false) String prefix,
+                                         @RequestParam(required = false) String status,
+                                         @RequestParam(required = false) String roleId,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer size) {
+        return userService.searchUsers(prefix, status, roleId, after, size);
     }
 
     /**
      * Obtiene los detalles de un usuario por su nombre de usuario.
+     * La respuesta incluye un ETag de los detalles; si coincide con {@code If-None-Match} se responde 304 sin cuerpo.
+     * Como el formato se negocia según {@code Accept}, la respuesta incluye {@code Vary: Accept}.
      *
      * @param username el nombre de usuario del usuario a buscar
-     * @return un {@link Mono} que emite los detalles del usuario encontrado
+     * @return un {@link Mono} que emite la respuesta con los detalles del usuario encontrado y su ETag
      */
     @GetMapping("/{username}")
-    public Mono<CustomUserDetailsDTO> getUserByUsername(@PathVariable String username) {
-        return userService.findByUsername(username);
+    public Mono<ResponseEntity<CustomUserDetailsDTO>> getUserByUsername(@PathVariable String username) {
+        return userService.findByUsername(username)
+                .map(userDetails -> ResponseEntity.ok().eTag(ETags.forUser(userDetails)).body(userDetails));
+    }
+
+    /**
+     * Verifica las credenciales de un usuario sin exponer su contraseña codificada.
+     *
+     * @param loginRequest el nombre de usuario y la contraseña a verificar
+     * @return un {@link Mono} que emite los detalles del usuario con sus roles si las credenciales son válidas
+     */
+    @PostMapping("/verify")
+    public Mono<CustomUserDetailsDTO> verifyCredentials(@RequestBody LoginRequest loginRequest) {
+        return userService.verifyCredentials(loginRequest.getUsername(), loginRequest.getPassword());
     }
 
     /**
@@ -44,6 +92,18 @@ public class UserController {
         return userService.registerUser(userDTO.getUsername(), userDTO.getPassword());
     }
 
+    /**
+     * Importa usuarios de forma masiva a partir de un flujo NDJSON, un usuario por línea.
+     * Cada usuario se crea con el rol por defecto y el resultado de cada registro se devuelve en streaming.
+     *
+     * @param users el flujo de usuarios a importar
+     * @return un {@link Flux} que emite el resultado de la importación de cada registro
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<UserImportResultDTO> importUsers(@RequestBody Flux<UserDTO> users) {
+        return userImportService.importUsers(users);
+    }
+
     /**
      * Asigna un rol a un usuario existente.
      *
@@ -57,6 +117,17 @@ public class UserController {
         return userService.assignRoleToUser(username, roleId);
     }
 
+    /**
+     * Asigna o revoca un rol a varios usuarios en una sola solicitud.
+     *
+     * @param request el ID del rol, los nombres de usuario y la operación a aplicar
+     * @return un {@link Flux} que emite el resultado de la operación para cada usuario
+     */
+    @PostMapping("/bulk-role")
+    public Flux<RoleAssignmentResultDTO> bulkChangeRole(@RequestBody BulkRoleAssignmentRequest request) {
+        return userService.bulkChangeRole(request.getRoleId(), request.getUsernames(), request.getOperation());
+    }
+
     /**
      * Actualiza el token de seguridad de un usuario.
      *
@@ -79,5 +150,15 @@ public class UserController {
     public Mono<CustomUserDetailsDTO> getUserById(@PathVariable String userId) {
         return userService.findById(userId);
     }
-}
 
+    /**
+     * Obtiene los detalles de varios usuarios activos en una sola llamada.
+     *
+     * @param request los nombres de usuario y/o IDs a resolver.
+     * @return un {@link Flux} que emite los detalles de los usuarios encontrados.
+     */
+    @PostMapping("/batch")
+    public Flux<CustomUserDetailsDTO> getUsersBatch(@RequestBody UserBatchRequest request) {
+        return userService.findAllByUsernamesOrIds(request.getUsernames(), request.getIds());
+    }
+}
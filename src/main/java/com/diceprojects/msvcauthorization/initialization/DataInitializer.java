@@ -24,10 +24,19 @@ public class DataInitializer implements CommandLineRunner {
         this.roleService = roleService;
     }
 
+    /**
+     * Loads the role hierarchy before anything else, blocking startup until it is available so that users
+     * are never resolved without their inherited roles. A failed load is logged and startup continues;
+     * the index is then filled as roles are read. The default roles and user are created asynchronously.
+     */
     @Override
     public void run(String... args) {
-        createRoleIfNotFound("ADMIN", "Administrator role, full access").
-                then(createRoleIfNotFound("USER", "Standard user role, limited access"))
+        roleService.loadRoleHierarchy()
+                .onErrorResume(e -> Mono.empty())
+                .block();
+
+        createRoleIfNotFound("ADMIN", "Administrator role, full access")
+                .then(createRoleIfNotFound("USER", "Standard user role, limited access"))
                 .flatMap(role -> createUserIfNotFound("admin", "password", role.getRole()))
                 .subscribe(
                         result -> System.out.println("Initialization completed successfully"),
@@ -0,0 +1,138 @@
+package com.diceprojects.msvcauthorization.initialization;
+
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.persistences.models.entities.User;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Completa al iniciar la aplicación las claves normalizadas de los usuarios y roles creados antes de su incorporación.
+ * <p>
+ * Los documentos sin {@code usernameKey} o {@code roleKey} se recorren en lotes y se actualizan con escrituras masivas
+ * no ordenadas, calculando la clave con {@link KeyNormalizer} para que coincida con la usada en las búsquedas.
+ * La migración es idempotente: solo actualiza documentos que aún no tienen la clave. Se ejecuta antes que los demás
+ * {@link CommandLineRunner} y bloquea el arranque hasta completarse, por lo que la aplicación no se declara lista
+ * mientras existan documentos pendientes. Si dos documentos solo difieren en mayúsculas, el índice único rechaza la
+ * segunda clave y el conflicto se registra en el log para resolverlo manualmente; mientras tanto, las búsquedas
+ * encuentran esos documentos por su nombre exacto.
+ * <p>
+ * Buscar los documentos sin clave requiere recorrer las colecciones completas, ya que el índice único disperso
+ * no contiene esos documentos. Por eso, al completar una pasada sin más errores que esos conflictos, se registra
+ * un documento de marca en la colección {@code migrations} y los arranques siguientes omiten la migración con una
+ * búsqueda por {@code _id}. Los documentos nuevos ya se crean con su clave. Para volver a ejecutar la migración
+ * basta con eliminar la marca.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class NormalizedKeyMigration implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(NormalizedKeyMigration.class);
+    private static final String MIGRATIONS_COLLECTION = "migrations";
+    private static final String MIGRATION_ID = "normalized-keys";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    /**
+     * Constructor de NormalizedKeyMigration.
+     *
+     * @param mongoTemplate la plantilla reactiva de MongoDB.
+     * @param batchSize     la cantidad de documentos actualizados por escritura masiva.
+     */
+    public NormalizedKeyMigration(ReactiveMongoTemplate mongoTemplate,
+                                  @Value("${msvc.migration.normalized-keys.batch-size:500}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(String... args) {
+        Query marker = new Query(Criteria.where("_id").is(MIGRATION_ID));
+        mongoTemplate.exists(marker, MIGRATIONS_COLLECTION)
+                .flatMap(completed -> completed
+                        ? Mono.empty()
+                        : backfill(User.class, "username", "usernameKey")
+                                .then(backfill(Role.class, "role", "roleKey"))
+                                .then(mongoTemplate.upsert(marker, Update.update("completedAt", new Date()), MIGRATIONS_COLLECTION))
+                                .doOnNext(result -> logger.info("Migración de claves normalizadas completada")))
+                .onErrorResume(error -> {
+                    logger.error("Error migrando las claves normalizadas; los documentos sin clave se buscarán por su nombre exacto", error);
+                    return Mono.empty();
+                })
+                .block();
+    }
+
+    /**
+     * Completa la clave normalizada de los documentos de una colección que aún no la tienen.
+     *
+     * @param entityClass la entidad cuya colección se migra.
+     * @param sourceField el campo a partir del cual se calcula la clave.
+     * @param keyField    el campo de la clave normalizada.
+     * @return un {@link Mono} que emite la cantidad de documentos actualizados.
+     */
+    private Mono<Long> backfill(Class<?> entityClass, String sourceField, String keyField) {
+        String collectionName = mongoTemplate.getCollectionName(entityClass);
+        Query query = new Query(Criteria.where(keyField).exists(false).and(sourceField).ne(null));
+        query.fields().include(sourceField);
+
+        return mongoTemplate.find(query, Document.class, collectionName)
+                .buffer(batchSize)
+                .concatMap(batch -> updateBatch(collectionName, batch, sourceField, keyField))
+                .reduce(0L, Long::sum)
+                .doOnNext(updated -> {
+                    if (updated > 0) {
+                        logger.info("Se completaron {} claves normalizadas en la colección {}", updated, collectionName);
+                    }
+                });
+    }
+
+    /**
+     * Actualiza la clave normalizada de un lote de documentos con una escritura masiva no ordenada.
+     * Las claves duplicadas se registran sin interrumpir la migración; cualquier otro error la interrumpe,
+     * de modo que no se registre como completada.
+     *
+     * @param collectionName el nombre de la colección.
+     * @param batch          los documentos del lote, con su ID y el campo de origen.
+     * @param sourceField    el campo a partir del cual se calcula la clave.
+     * @param keyField       el campo de la clave normalizada.
+     * @return un {@link Mono} que emite la cantidad de documentos actualizados en el lote.
+     */
+    private Mono<Long> updateBatch(String collectionName, List<Document> batch, String sourceField, String keyField) {
+        ReactiveBulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collectionName);
+        for (Document document : batch) {
+            Query byId = new Query(Criteria.where("_id").is(document.get("_id")).and(keyField).exists(false));
+            bulkOperations.updateOne(byId, Update.update(keyField, KeyNormalizer.normalize(document.getString(sourceField))));
+        }
+
+        return bulkOperations.execute()
+                .map(result -> (long) result.getModifiedCount())
+                .onErrorResume(e -> e.getCause() instanceof MongoBulkWriteException bulkWriteException
+                                && bulkWriteException.getWriteErrors().stream()
+                                .allMatch(error -> ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY),
+                        e -> {
+                            MongoBulkWriteException bulkWriteException = (MongoBulkWriteException) e.getCause();
+                            logger.warn("No se pudieron completar {} claves normalizadas en la colección {}: {}", bulkWriteException.getWriteErrors().size(),
+                                    collectionName, bulkWriteException.getWriteErrors());
+                            return Mono.just((long) bulkWriteException.getWriteResult().getModifiedCount());
+                        });
+    }
+}
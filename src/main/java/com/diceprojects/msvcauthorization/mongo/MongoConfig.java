@@ -1,8 +1,14 @@
 package com.diceprojects.msvcauthorization.mongo;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
 
+import java.time.Duration;
+
 /**
  * Configuración de MongoDB para el proyecto.
  * Esta clase configura los repositorios MongoDB para que operen en modo reactivo,
@@ -16,4 +22,20 @@ import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRep
 @EnableReactiveMongoRepositories(basePackages = "com.diceprojects.msvcauthorization.persistences.repositories")
 public class MongoConfig {
 
+    /**
+     * Registra en el cliente de MongoDB el listener que registra los comandos lentos.
+     * Las métricas de latencia por comando y colección y las del pool de conexiones las agrega Spring Boot Actuator
+     * mediante su propio personalizador del cliente.
+     *
+     * @param meterRegistry el registro de métricas donde se contabilizan los comandos lentos.
+     * @param threshold     la duración a partir de la cual un comando se considera lento.
+     * @param sampleRate    la fracción de comandos a los que se les hace seguimiento, entre 0 y 1.
+     * @return el personalizador de la configuración del cliente de MongoDB.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer slowCommandListenerCustomizer(MeterRegistry meterRegistry,
+                                                                              @Value("${msvc.mongo.slow-query.threshold:100ms}") Duration threshold,
+                                                                              @Value("${msvc.mongo.slow-query.sample-rate:1.0}") double sampleRate) {
+        return settings -> settings.addCommandListener(new MongoSlowCommandListener(threshold, sampleRate, meterRegistry));
+    }
 }
@@ -0,0 +1,171 @@
+package com.diceprojects.msvcauthorization.mongo;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listener de comandos de MongoDB que registra en el log los comandos que superan un umbral de duración.
+ * <p>
+ * Al iniciar un comando se decide, según la tasa de muestreo, si se le hará seguimiento. Para los comandos
+ * muestreados se conserva la forma del filtro, es decir, su estructura de campos y operadores con los valores
+ * reemplazados por {@code ?}, de modo que el log no exponga datos de usuarios. Si el comando termina por encima
+ * del umbral se registra una entrada estructurada y se incrementa la métrica {@code mongodb.slow.commands}.
+ * La latencia de todos los comandos la publica el listener de métricas de Spring Boot en {@code mongodb.driver.commands}.
+ */
+public class MongoSlowCommandListener implements CommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoSlowCommandListener.class);
+
+    private static final List<String> FILTER_FIELDS = List.of("filter", "query", "q", "pipeline", "updates", "deletes");
+    private static final int MAX_SHAPE_LENGTH = 1000;
+
+    private final long thresholdNanos;
+    private final double sampleRate;
+    private final MeterRegistry meterRegistry;
+    private final Map<Integer, SampledCommand> sampledCommands = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor de MongoSlowCommandListener.
+     *
+     * @param threshold     la duración a partir de la cual un comando se considera lento.
+     * @param sampleRate    la fracción de comandos a los que se les hace seguimiento, entre 0 y 1.
+     * @param meterRegistry el registro de métricas donde se contabilizan los comandos lentos.
+     */
+    public MongoSlowCommandListener(Duration threshold, double sampleRate, MeterRegistry meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.sampleRate = sampleRate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (sampleRate <= 0 || (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate)) {
+            return;
+        }
+
+        BsonDocument command = event.getCommand();
+        BsonValue collection = command.get(event.getCommandName());
+        sampledCommands.put(event.getRequestId(), new SampledCommand(
+                event.getDatabaseName(),
+                collection != null && collection.isString() ? collection.asString().getValue() : "",
+                filterShape(command)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        complete(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "SUCCESS");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        complete(event.getRequestId(), event.getCommandName(), event.getElapsedTime(TimeUnit.NANOSECONDS), "FAILED");
+    }
+
+    /**
+     * Finaliza el seguimiento de un comando muestreado y lo registra si superó el umbral.
+     *
+     * @param requestId    el ID de la solicitud del comando.
+     * @param commandName  el nombre del comando.
+     * @param elapsedNanos la duración del comando en nanosegundos.
+     * @param status       el resultado del comando.
+     */
+    private void complete(int requestId, String commandName, long elapsedNanos, String status) {
+        SampledCommand sampled = sampledCommands.remove(requestId);
+        if (sampled == null || elapsedNanos < thresholdNanos) {
+            return;
+        }
+
+        Counter.builder("mongodb.slow.commands")
+                .tag("command", commandName)
+                .tag("collection", sampled.collection())
+                .description("Comandos de MongoDB que superaron el umbral de duración")
+                .register(meterRegistry)
+                .increment();
+        logger.warn("Comando lento en MongoDB: command={} database={} collection={} status={} durationMs={} filter={}",
+                commandName, sampled.database(), sampled.collection(), status,
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos), sampled.filterShape());
+    }
+
+    /**
+     * Obtiene la forma del filtro de un comando, sin sus valores.
+     *
+     * @param command el documento del comando.
+     * @return la forma del filtro, o una cadena vacía si el comando no tiene filtro.
+     */
+    private static String filterShape(BsonDocument command) {
+        StringBuilder shape = new StringBuilder();
+        for (String field : FILTER_FIELDS) {
+            BsonValue value = command.get(field);
+            if (value != null) {
+                shape.append(field).append('=');
+                appendShape(shape, value);
+                shape.append(' ');
+            }
+        }
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape.toString().trim();
+    }
+
+    /**
+     * Agrega la forma de un valor BSON, conservando los nombres de campos y operadores y reemplazando los valores por {@code ?}.
+     * De los arreglos se conserva solo la forma del primer elemento.
+     *
+     * @param shape el acumulador de la forma.
+     * @param value el valor a describir.
+     */
+    private static void appendShape(StringBuilder shape, BsonValue value) {
+        if (shape.length() > MAX_SHAPE_LENGTH) {
+            return;
+        }
+        if (value.isDocument()) {
+            shape.append('{');
+            boolean first = true;
+            for (Map.Entry<String, BsonValue> entry : value.asDocument().entrySet()) {
+                if (!first) {
+                    shape.append(", ");
+                }
+                first = false;
+                shape.append(entry.getKey()).append(": ");
+                appendShape(shape, entry.getValue());
+            }
+            shape.append('}');
+        } else if (value.isArray()) {
+            BsonArray array = value.asArray();
+            shape.append('[');
+            if (!array.isEmpty()) {
+                appendShape(shape, array.get(0));
+                if (array.size() > 1) {
+                    shape.append(", ...");
+                }
+            }
+            shape.append(']');
+        } else {
+            shape.append('?');
+        }
+    }
+
+    /**
+     * Datos de un comando muestreado conservados hasta que finaliza.
+     *
+     * @param database    la base de datos del comando.
+     * @param collection  la colección del comando, o una cadena vacía si no aplica.
+     * @param filterShape la forma del filtro del comando.
+     */
+    private record SampledCommand(String database, String collection, String filterShape) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.diceprojects.msvcauthorization.mongo;
 
 import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
 import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
 import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
 import org.springframework.stereotype.Component;
@@ -10,14 +11,14 @@ import java.time.ZonedDateTime;
 
 /**
  * Listener para eventos de la entidad Role en MongoDB.
- * Se encarga de establecer las fechas de creación y actualización antes de convertir la entidad.
+ * Se encarga de establecer la fecha de creación y el nombre normalizado antes de convertir la entidad.
  */
 @Component
 public class RoleModelListener extends AbstractMongoEventListener<Role> {
 
     /**
      * Método que se ejecuta antes de convertir la entidad Role.
-     * Establece la fecha de creación si no está presente.
+     * Establece la fecha de creación si no está presente y recalcula el nombre normalizado del rol.
      *
      * @param event el evento de antes de convertir de la entidad Role
      */
@@ -27,5 +28,6 @@ public class RoleModelListener extends AbstractMongoEventListener<Role> {
         if (role.getCreateDate() == null) {
             role.setCreateDate(ZonedDateTime.now(ZoneId.systemDefault()).toLocalDateTime());
         }
+        role.setRoleKey(KeyNormalizer.normalize(role.getRole()));
     }
 }
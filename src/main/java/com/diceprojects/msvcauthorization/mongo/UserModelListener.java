@@ -0,0 +1,27 @@
+package com.diceprojects.msvcauthorization.mongo;
+
+import com.diceprojects.msvcauthorization.persistences.models.entities.User;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener para eventos de la entidad User en MongoDB.
+ * Se encarga de mantener el nombre de usuario normalizado antes de convertir la entidad.
+ */
+@Component
+public class UserModelListener extends AbstractMongoEventListener<User> {
+
+    /**
+     * Método que se ejecuta antes de convertir la entidad User.
+     * Recalcula el nombre de usuario normalizado a partir del nombre de usuario.
+     *
+     * @param event el evento de antes de convertir de la entidad User
+     */
+    @Override
+    public void onBeforeConvert(BeforeConvertEvent<User> event) {
+        User user = event.getSource();
+        user.setUsernameKey(KeyNormalizer.normalize(user.getUsername()));
+    }
+}
@@ -0,0 +1,36 @@
+package com.diceprojects.msvcauthorization.persistences.models.dtos;
+
+import lombok.Getter;
+
+/**
+ * DTO que representa la decisión de autorización de un usuario para un requisito de roles.
+ */
+@Getter
+public class AuthorizationDecisionDTO {
+
+    /**
+     * Decisión que concede el acceso.
+     */
+    public static final AuthorizationDecisionDTO ALLOW = new AuthorizationDecisionDTO(true);
+
+    /**
+     * Decisión que deniega el acceso.
+     */
+    public static final AuthorizationDecisionDTO DENY = new AuthorizationDecisionDTO(false);
+
+    private final boolean allowed;
+
+    private AuthorizationDecisionDTO(boolean allowed) {
+        this.allowed = allowed;
+    }
+
+    /**
+     * Obtiene la decisión correspondiente a un resultado.
+     *
+     * @param allowed {@code true} si el acceso se concede.
+     * @return la decisión compartida correspondiente.
+     */
+    public static AuthorizationDecisionDTO of(boolean allowed) {
+        return allowed ? ALLOW : DENY;
+    }
+}
@@ -0,0 +1,25 @@
+package com.diceprojects.msvcauthorization.persistences.models.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para asignar o revocar un rol a varios usuarios en una sola solicitud.
+ */
+@Data
+public class BulkRoleAssignmentRequest {
+
+    private String roleId;
+    private List<String> usernames = new ArrayList<>();
+    private Operation operation = Operation.ASSIGN;
+
+    /**
+     * Operación a aplicar sobre el rol de cada usuario.
+     */
+    public enum Operation {
+        ASSIGN,
+        REVOKE
+    }
+}
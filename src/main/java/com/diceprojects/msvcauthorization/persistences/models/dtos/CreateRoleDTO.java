@@ -3,6 +3,8 @@ package com.diceprojects.msvcauthorization.persistences.models.dtos;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.util.Set;
+
 /**
  * DTO para la creación de roles.
  * Este objeto es utilizado para transferir los datos necesarios para la creación de un rol en el sistema.
@@ -13,6 +15,7 @@ public class CreateRoleDTO {
 
     private String roleName;
     private String description;
+    private Set<String> inheritedRoleIds;
 
     /**
      * Constructor para inicializar todos los campos del CreateRoleDTO.
@@ -0,0 +1,36 @@
+package com.diceprojects.msvcauthorization.persistences.models.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO que representa el resultado de asignar o revocar un rol a un usuario dentro de una operación masiva.
+ */
+@Getter
+@Setter
+public class RoleAssignmentResultDTO {
+
+    private String username;
+    private Outcome outcome;
+
+    /**
+     * Constructor que inicializa todos los campos del resultado.
+     *
+     * @param username el nombre de usuario.
+     * @param outcome  el resultado de la operación para el usuario.
+     */
+    public RoleAssignmentResultDTO(String username, Outcome outcome) {
+        this.username = username;
+        this.outcome = outcome;
+    }
+
+    /**
+     * Resultado de la operación para un usuario.
+     */
+    public enum Outcome {
+        ASSIGNED,
+        REVOKED,
+        UNCHANGED,
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,18 @@
+package com.diceprojects.msvcauthorization.persistences.models.dtos;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO para solicitar los detalles de varios usuarios en una sola llamada.
+ * Los usuarios pueden indicarse por nombre de usuario, por ID, o combinando ambas listas.
+ */
+@Data
+public class UserBatchRequest {
+
+    private List<String> usernames = new ArrayList<>();
+    private List<String> ids = new ArrayList<>();
+
+}
@@ -0,0 +1,45 @@
+package com.diceprojects.msvcauthorization.persistences.models.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * DTO que representa el resultado de importar un usuario dentro de una importación masiva.
+ */
+@Getter
+@Setter
+public class UserImportResultDTO {
+
+    private long index;
+    private String username;
+    private String id;
+    private Status status;
+    private String message;
+
+    /**
+     * Constructor que inicializa todos los campos del resultado.
+     *
+     * @param index    la posición del registro en el flujo de entrada, comenzando en 0.
+     * @param username el nombre de usuario del registro.
+     * @param id       el ID del usuario creado, o {@code null} si no se creó.
+     * @param status   el resultado de la importación del registro.
+     * @param message  el detalle del resultado, o {@code null} si el usuario se creó correctamente.
+     */
+    public UserImportResultDTO(long index, String username, String id, Status status, String message) {
+        this.index = index;
+        this.username = username;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+    }
+
+    /**
+     * Resultado de la importación de un registro.
+     */
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+}
@@ -5,15 +5,19 @@ import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Entidad que representa un rol en el sistema.
  */
 @Document(collection = "roles")
+@CompoundIndex(name = "status_id", def = "{'status': 1, '_id': 1}")
 @Data
 @Getter
 @Setter
@@ -23,7 +27,16 @@ public class Role {
     private String id;
     @Indexed(unique = true)
     private String role;
+    /**
+     * Nombre del rol normalizado en minúsculas, usado para búsquedas y unicidad sin distinguir mayúsculas.
+     */
+    @Indexed(unique = true, sparse = true)
+    private String roleKey;
     private String description;
+    /**
+     * IDs de los roles cuyos permisos hereda este rol. Por ejemplo, ADMIN puede heredar USER.
+     */
+    private Set<String> inheritedRoleIds = new HashSet<>();
     private boolean deleted = false;
     private String status;
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss")
@@ -2,6 +2,7 @@ package com.diceprojects.msvcauthorization.persistences.models.entities;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -13,6 +14,8 @@ import java.util.Set;
  * Entidad que representa un usuario en el sistema.
  */
 @Document(collection = "users")
+@CompoundIndex(name = "status_usernameKey", def = "{'status': 1, 'usernameKey': 1}")
+@CompoundIndex(name = "roleIds_usernameKey", def = "{'roleIds': 1, 'usernameKey': 1}")
 @Data
 public class User {
 
@@ -22,6 +25,12 @@ public class User {
     @Indexed(unique = true)
     private String username;
 
+    /**
+     * Nombre de usuario normalizado en minúsculas, usado para búsquedas y unicidad sin distinguir mayúsculas.
+     */
+    @Indexed(unique = true, sparse = true)
+    private String usernameKey;
+
     private String password;
     private String status;
     private boolean deleted = false;
@@ -6,6 +6,7 @@ import org.springframework.stereotype.Component;
 
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.HashSet;
 
 /**
  * Mapper para transformar objetos entre CreateRoleDTO y Role.
@@ -24,6 +25,9 @@ public class RoleMapper {
         Role role = new Role();
         role.setRole(createRoleDTO.getRoleName());
         role.setDescription(createRoleDTO.getDescription());
+        if (createRoleDTO.getInheritedRoleIds() != null) {
+            role.setInheritedRoleIds(new HashSet<>(createRoleDTO.getInheritedRoleIds()));
+        }
         role.setCreateDate(ZonedDateTime.now(ZoneId.systemDefault()).toLocalDateTime());
         role.setDeleted(false);
         role.setStatus(activeStatus);
@@ -1,15 +1,19 @@
 package com.diceprojects.msvcauthorization.persistences.models.mappers;
 
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleDTO;
 import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
 import com.diceprojects.msvcauthorization.persistences.models.entities.User;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserWithRoles;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
 import org.springframework.stereotype.Component;
 
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Clase que proporciona métodos para transformar entidades User a CustomUserDetailsDTO y para crear nuevas instancias de User.
@@ -17,10 +21,10 @@ import java.util.stream.Collectors;
 @Component
 public class UserMapper {
 
-    private final PasswordEncoder passwordEncoder;
+    private final RoleIndex roleIndex;
 
-    public UserMapper(PasswordEncoder passwordEncoder) {
-        this.passwordEncoder = passwordEncoder;
+    public UserMapper(RoleIndex roleIndex) {
+        this.roleIndex = roleIndex;
     }
 
     /**
@@ -31,17 +35,17 @@ public class UserMapper {
      * @return Un objeto CustomUserDetailsDTO que representa los detalles del usuario.
      */
     public CustomUserDetailsDTO mapToUserDetails(User user, Set<Role> roles) {
-        Set<RoleDTO> roleDTOs = roles != null ? roles.stream()
-                .map(role -> new RoleDTO(role.getId(), role.getRole(), role.getStatus()))
-                .collect(Collectors.toSet()) : Set.of(); // Manejo de roles vacíos
+        return mapToUserDetails(user.getId(), user.getUsername(), user.getStatus(), roles);
+    }
 
-        return new CustomUserDetailsDTO(
-                user.getId(),
-                user.getUsername(),
-                user.getPassword(),
-                user.getStatus(),
-                roleDTOs
-        );
+    /**
+     * Transforma la proyección de un usuario con sus roles en un objeto CustomUserDetailsDTO.
+     *
+     * @param user La proyección del usuario con sus roles, obtenida mediante agregación.
+     * @return Un objeto CustomUserDetailsDTO que representa los detalles del usuario.
+     */
+    public CustomUserDetailsDTO mapToUserDetails(UserWithRoles user) {
+        return mapToUserDetails(user.getId(), user.getUsername(), user.getStatus(), user.getRoles());
     }
 
     /**
@@ -51,27 +55,63 @@ public class UserMapper {
      * @return Un objeto CustomUserDetailsDTO que representa los detalles del usuario sin roles.
      */
     public CustomUserDetailsDTO mapToUserDetails(User user) {
-        return new CustomUserDetailsDTO(
-                user.getId(),
-                user.getUsername(),
-                user.getPassword(),
-                user.getStatus(),
-                Set.of()
-        );
+        return mapToUserDetails(user.getId(), user.getUsername(), user.getStatus(), null);
     }
 
     /**
-     * Crea e inicializa una nueva instancia de User.
+     * Construye los detalles de un usuario y calcula el conjunto de bits de sus roles. Los roles heredados
+     * a través de la jerarquía se agregan a los roles del usuario a partir de la clausura precalculada en el índice.
+     * <p>
+     * El índice de roles solo se consulta: el nombre y el estado de cada rol los mantienen {@code RoleCache},
+     * la carga de la jerarquía y el listener de invalidación, de modo que una lectura desactualizada del usuario
+     * no pueda sobrescribir el estado global de un rol, por ejemplo reactivando un rol desactivado.
      *
+     * @param id       El ID del usuario.
      * @param username El nombre de usuario.
-     * @param password La contraseña del usuario.
      * @param status   El estado del usuario.
+     * @param roles    Los roles del usuario, o {@code null} si no tiene.
+     * @return Un objeto CustomUserDetailsDTO que representa los detalles del usuario.
+     */
+    private CustomUserDetailsDTO mapToUserDetails(String id, String username, String status, Collection<Role> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return new CustomUserDetailsDTO(id, username, status, Set.of()); // Manejo de roles vacíos
+        }
+
+        Set<RoleDTO> roleDTOs = new HashSet<>();
+        BitSet assignedBits = new BitSet();
+        for (Role role : roles) {
+            assignedBits.set(roleIndex.bitOf(role.getId()));
+            roleDTOs.add(new RoleDTO(role.getId(), role.getRole(), role.getStatus()));
+        }
+
+        BitSet roleBits = roleIndex.expand(assignedBits);
+        BitSet inheritedBits = (BitSet) roleBits.clone();
+        inheritedBits.andNot(assignedBits);
+        for (int bit = inheritedBits.nextSetBit(0); bit >= 0; bit = inheritedBits.nextSetBit(bit + 1)) {
+            RoleDTO inheritedRole = roleIndex.roleAt(bit);
+            if (inheritedRole != null) {
+                roleDTOs.add(inheritedRole);
+            }
+        }
+
+        CustomUserDetailsDTO userDetails = new CustomUserDetailsDTO(id, username, status, roleDTOs);
+        userDetails.setRoleBits(roleBits);
+        return userDetails;
+    }
+
+    /**
+     * Crea e inicializa una nueva instancia de User.
+     *
+     * @param username        El nombre de usuario.
+     * @param encodedPassword La contraseña del usuario, ya codificada.
+     * @param status          El estado del usuario.
      * @return Una instancia inicializada de User.
      */
-    public User createNewUser(String username, String password, String status) {
+    public User createNewUser(String username, String encodedPassword, String status) {
         User user = new User();
         user.setUsername(username);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setUsernameKey(KeyNormalizer.normalize(username));
+        user.setPassword(encodedPassword);
         user.setStatus(status);
         user.setDeleted(false);
         user.setCreateDate(new Date());
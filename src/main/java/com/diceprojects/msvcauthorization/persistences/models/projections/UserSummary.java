@@ -0,0 +1,25 @@
+package com.diceprojects.msvcauthorization.persistences.models.projections;
+
+import lombok.Data;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Proyección resumida de un usuario para listados y búsquedas.
+ * <p>
+ * Nunca incluye la contraseña ni el token de seguridad: esos campos no se leen de la base de datos.
+ */
+@Data
+public class UserSummary {
+
+    private String id;
+    private String username;
+    private String status;
+    private boolean forcePasswordChange;
+    private Date createDate;
+    private Date updateDate;
+    private Set<String> roleIds = new HashSet<>();
+
+}
@@ -0,0 +1,24 @@
+package com.diceprojects.msvcauthorization.persistences.models.projections;
+
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Proyección de un usuario junto con los documentos de sus roles, obtenida en una sola consulta de agregación.
+ * <p>
+ * Contiene únicamente los campos necesarios para construir los detalles del usuario: de cada rol
+ * se proyectan solo su ID, nombre y estado.
+ */
+@Data
+public class UserWithRoles {
+
+    private String id;
+    private String username;
+    private String password;
+    private String status;
+    private List<Role> roles = new ArrayList<>();
+
+}
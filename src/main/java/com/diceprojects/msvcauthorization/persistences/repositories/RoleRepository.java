@@ -9,7 +9,7 @@ import reactor.core.publisher.Mono;
  * Repositorio para operaciones de la entidad {@link Role} en MongoDB.
  * Extiende {@link ReactiveMongoRepository} para soporte reactivo con MongoDB.
  */
-public interface RoleRepository extends ReactiveMongoRepository<Role, String> {
+public interface RoleRepository extends ReactiveMongoRepository<Role, String>, RoleRepositoryCustom {
 
     /**
      * Busca un {@link Role} por su atributo 'role'.
@@ -21,12 +21,12 @@ public interface RoleRepository extends ReactiveMongoRepository<Role, String> {
     Mono<Role> findByRole(String role);
 
     /**
-     * Busca un rol por su nombre, ignorando mayúsculas y minúsculas.
+     * Busca un rol por su nombre normalizado, usando el índice único de la clave normalizada.
      *
-     * @param roleName el nombre del rol a buscar, ignorando mayúsculas y minúsculas.
+     * @param roleKey el nombre del rol normalizado en minúsculas.
      * @return un {@link Mono} que emite el rol encontrado, o vacío si no se encuentra ningún rol con ese nombre.
      */
-    Mono<Role> findByRoleIgnoreCase(String roleName);
+    Mono<Role> findByRoleKey(String roleKey);
 
 }
 
@@ -0,0 +1,21 @@
+package com.diceprojects.msvcauthorization.persistences.repositories;
+
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import reactor.core.publisher.Flux;
+
+/**
+ * Operaciones personalizadas sobre la colección de roles que no pueden expresarse como consultas derivadas.
+ */
+public interface RoleRepositoryCustom {
+
+    /**
+     * Obtiene los roles posteriores a un ID en orden ascendente de ID (paginación por cursor).
+     * Los roles se emiten a medida que los produce el cursor de MongoDB.
+     *
+     * @param afterId el ID del último rol de la página anterior, o {@code null} para comenzar desde el principio.
+     * @param status  el estado por el que filtrar, o {@code null} para no filtrar.
+     * @param limit   la cantidad máxima de roles a obtener, o {@code 0} para obtener todos los restantes.
+     * @return un {@link Flux} que emite los roles en orden ascendente de ID.
+     */
+    Flux<Role> findAfterId(String afterId, String status, int limit);
+}
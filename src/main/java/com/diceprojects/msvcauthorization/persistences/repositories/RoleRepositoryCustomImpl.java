@@ -0,0 +1,42 @@
+package com.diceprojects.msvcauthorization.persistences.repositories;
+
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implementación de {@link RoleRepositoryCustom} basada en {@link ReactiveMongoTemplate}.
+ */
+public class RoleRepositoryCustomImpl implements RoleRepositoryCustom {
+
+    private static final int CURSOR_BATCH_SIZE = 500;
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public RoleRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<Role> findAfterId(String afterId, String status, int limit) {
+        Criteria criteria = new Criteria();
+        if (afterId != null) {
+            criteria.and("id").gt(afterId);
+        }
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "id"))
+                .limit(limit)
+                .cursorBatchSize(limit > 0 ? Math.min(limit, CURSOR_BATCH_SIZE) : CURSOR_BATCH_SIZE);
+        return mongoTemplate.find(query, Role.class);
+    }
+}
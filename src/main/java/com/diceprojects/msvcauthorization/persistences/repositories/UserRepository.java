@@ -11,7 +11,7 @@ import reactor.core.publisher.Mono;
  * @author ReactiveMongoRepository permite la utilización de operaciones CRUD reactivas en MongoDB,
  * ofreciendo mejor rendimiento y manejo de concurrencia que las operaciones bloqueantes tradicionales.
  */
-public interface UserRepository extends ReactiveMongoRepository<User, String> {
+public interface UserRepository extends ReactiveMongoRepository<User, String>, UserRepositoryCustom {
 
     /**
      * Encuentra un usuario por su nombre de usuario.
@@ -20,6 +20,21 @@ public interface UserRepository extends ReactiveMongoRepository<User, String> {
      * @return Un {@link Mono} que, al ser suscrito, proporciona el usuario encontrado o un {@link Mono#empty()} si no se encuentra ninguno.
      */
     Mono<User> findByUsername(String username);
-    Mono<User> findByUsernameIgnoreCase(String username);
+
+    /**
+     * Verifica si existe un usuario con el nombre de usuario indicado.
+     *
+     * @param username El nombre de usuario a verificar.
+     * @return Un {@link Mono} que emite {@code true} si el usuario existe, o {@code false} en caso contrario.
+     */
+    Mono<Boolean> existsByUsername(String username);
+
+    /**
+     * Busca un usuario por su nombre de usuario normalizado, usando el índice único de la clave normalizada.
+     *
+     * @param usernameKey el nombre de usuario normalizado en minúsculas.
+     * @return un {@link Mono} que emite el usuario encontrado, o vacío si no existe.
+     */
+    Mono<User> findByUsernameKey(String usernameKey);
 
 }
@@ -0,0 +1,150 @@
+package com.diceprojects.msvcauthorization.persistences.repositories;
+
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserSummary;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserWithRoles;
+import com.diceprojects.msvcauthorization.persistences.models.entities.User;
+import com.mongodb.bulk.BulkWriteError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Operaciones personalizadas del repositorio de usuarios que no pueden expresarse como consultas derivadas.
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * Busca un usuario activo por su nombre de usuario, ignorando mayúsculas y minúsculas,
+     * junto con sus roles en una única consulta de agregación.
+     *
+     * @param username el nombre de usuario a buscar.
+     * @return un {@link Mono} que emite el usuario con sus roles, o vacío si no existe o no está activo.
+     */
+    Mono<UserWithRoles> findActiveByUsernameWithRoles(String username);
+
+    /**
+     * Busca un usuario por su ID junto con sus roles en una única consulta de agregación.
+     *
+     * @param userId el ID del usuario a buscar.
+     * @return un {@link Mono} que emite el usuario con sus roles, o vacío si no existe.
+     */
+    Mono<UserWithRoles> findByIdWithRoles(String userId);
+
+    /**
+     * Busca en una única consulta los usuarios activos cuyo nombre de usuario (ignorando mayúsculas y minúsculas)
+     * o cuyo ID se encuentre en las colecciones indicadas.
+     * Solo se cargan los campos necesarios para construir los detalles del usuario.
+     *
+     * @param usernames los nombres de usuario a buscar.
+     * @param ids       los IDs de usuario a buscar.
+     * @return un {@link Flux} que emite los usuarios encontrados.
+     */
+    Flux<User> findActiveByUsernamesOrIds(Collection<String> usernames, Collection<String> ids);
+
+    /**
+     * Agrega un ID de rol a un usuario mediante una única actualización atómica {@code $addToSet}.
+     * La actualización solo se aplica si el usuario existe y todavía no tiene el rol asignado.
+     * El usuario se busca sin distinguir mayúsculas y minúsculas.
+     *
+     * @param username el nombre de usuario al que se le asignará el rol.
+     * @param roleId   el ID del rol a asignar.
+     * @return un {@link Mono} que emite el usuario actualizado, o vacío si el usuario no existe o ya tenía el rol.
+     */
+    Mono<User> addRoleIdIfAbsent(String username, String roleId);
+
+    /**
+     * Busca un usuario por su nombre de usuario, ignorando mayúsculas y minúsculas mediante la clave normalizada.
+     * Los usuarios que aún no tienen clave normalizada se buscan por su nombre de usuario exacto.
+     *
+     * @param username el nombre de usuario a buscar.
+     * @return un {@link Mono} que emite el usuario encontrado, o vacío si no existe.
+     */
+    Mono<User> findByNormalizedUsername(String username);
+
+    /**
+     * Verifica si existe un usuario con el nombre de usuario indicado, ignorando mayúsculas y minúsculas mediante
+     * la clave normalizada. Los usuarios que aún no tienen clave normalizada se comparan por su nombre de usuario exacto.
+     *
+     * @param username el nombre de usuario a verificar.
+     * @return un {@link Mono} que emite {@code true} si el usuario existe, o {@code false} en caso contrario.
+     */
+    Mono<Boolean> existsByNormalizedUsername(String username);
+
+    /**
+     * Actualiza únicamente el token de seguridad y la fecha de actualización de un usuario
+     * mediante una única operación {@code findAndModify}.
+     *
+     * @param userId el ID del usuario.
+     * @param token  el nuevo token de seguridad.
+     * @return un {@link Mono} que emite el usuario actualizado, o vacío si el usuario no existe.
+     */
+    Mono<User> updateSecurityToken(String userId, String token);
+
+    /**
+     * Busca en una única consulta los IDs de rol de los usuarios indicados, sin distinguir mayúsculas y minúsculas.
+     * Solo se cargan el nombre de usuario y sus IDs de rol.
+     *
+     * @param usernames los nombres de usuario a buscar.
+     * @return un {@link Flux} que emite los usuarios encontrados con sus IDs de rol.
+     */
+    Flux<User> findRoleIdsByUsernames(Collection<String> usernames);
+
+    /**
+     * Asigna ({@code $addToSet}) o revoca ({@code $pull}) un rol a varios usuarios con una única escritura masiva
+     * no ordenada, con una actualización condicional por usuario. Cada actualización solo se aplica si el usuario
+     * aún no está en el estado deseado. Los usuarios se buscan sin distinguir mayúsculas y minúsculas.
+     *
+     * @param usernames los nombres de usuario a actualizar.
+     * @param roleId    el ID del rol a asignar o revocar.
+     * @param assign    {@code true} para asignar el rol, {@code false} para revocarlo.
+     * @return un {@link Mono} que emite la cantidad de usuarios modificados por la escritura.
+     */
+    Mono<Long> changeRoleIdIfNeeded(Collection<String> usernames, String roleId, boolean assign);
+
+    /**
+     * Busca en una única consulta cuáles de los nombres de usuario normalizados indicados ya existen.
+     *
+     * @param usernameKeys los nombres de usuario normalizados a verificar.
+     * @return un {@link Flux} que emite los nombres de usuario normalizados existentes.
+     */
+    Flux<String> findExistingUsernameKeys(Collection<String> usernameKeys);
+
+    /**
+     * Busca usuarios ordenados por nombre de usuario normalizado, usando paginación por cursor sobre el nombre de usuario
+     * normalizado, de modo que el prefijo y el cursor no distinguen mayúsculas y minúsculas.
+     * Solo se cargan los campos de {@link UserSummary}; la contraseña y el token de seguridad nunca se leen.
+     *
+     * @param usernamePrefix el prefijo del nombre de usuario, sin distinguir mayúsculas y minúsculas, o {@code null} para no filtrar.
+     * @param status         el estado por el que filtrar, o {@code null} para no filtrar.
+     * @param roleId         el ID de un rol que los usuarios deben tener asignado, o {@code null} para no filtrar.
+     * @param afterUsername  el nombre de usuario del último resultado de la página anterior, o {@code null} para la primera página.
+     * @param limit          la cantidad máxima de usuarios a obtener.
+     * @return un {@link Flux} que emite los usuarios en orden ascendente de nombre de usuario normalizado.
+     */
+    Flux<UserSummary> searchUsers(String usernamePrefix, String status, String roleId, String afterUsername, int limit);
+
+    /**
+     * Inserta varios usuarios con una única operación {@code insertMany} no ordenada.
+     * A los usuarios sin ID se les asigna uno antes de la inserción, de modo que tras la operación
+     * cada usuario insertado correctamente tiene su ID establecido.
+     *
+     * @param users los usuarios a insertar.
+     * @return un {@link Mono} que emite los errores de escritura indexados por la posición del usuario en la lista,
+     * o un mapa vacío si todos los usuarios se insertaron.
+     */
+    Mono<Map<Integer, BulkWriteError>> insertAllUnordered(List<User> users);
+
+    /**
+     * Reemplaza la contraseña codificada de un usuario solo si no cambió desde que fue leída.
+     *
+     * @param userId          el ID del usuario.
+     * @param currentPassword la contraseña codificada leída previamente.
+     * @param newPassword     la nueva contraseña codificada.
+     * @return un {@link Mono} que emite {@code true} si la contraseña fue reemplazada.
+     */
+    Mono<Boolean> updatePasswordIfUnchanged(String userId, String currentPassword, String newPassword);
+
+}
@@ -0,0 +1,338 @@
+package com.diceprojects.msvcauthorization.persistences.repositories;
+
+import com.diceprojects.msvcauthorization.persistences.models.entities.User;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserSummary;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserWithRoles;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveBulkOperations;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Implementación de {@link UserRepositoryCustom} basada en {@link ReactiveMongoTemplate}.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String ACTIVE_STATUS = "Active";
+    private static final String ROLES_COLLECTION = "roles";
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    public UserRepositoryCustomImpl(ReactiveMongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<UserWithRoles> findActiveByUsernameWithRoles(String username) {
+        Criteria criteria = usernameIs(username)
+                .and("status").regex(equalsIgnoreCase(ACTIVE_STATUS));
+        return findOneWithRoles(criteria);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<UserWithRoles> findByIdWithRoles(String userId) {
+        return findOneWithRoles(Criteria.where("id").is(userId));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<User> findActiveByUsernamesOrIds(Collection<String> usernames, Collection<String> ids) {
+        List<Criteria> matchers = new ArrayList<>();
+        if (!usernames.isEmpty()) {
+            matchers.add(Criteria.where("usernameKey").in(usernames.stream().map(KeyNormalizer::normalize).toList()));
+            matchers.add(Criteria.where("usernameKey").exists(false).and("username").in(usernames));
+        }
+        if (!ids.isEmpty()) {
+            matchers.add(Criteria.where("id").in(ids));
+        }
+        if (matchers.isEmpty()) {
+            return Flux.empty();
+        }
+
+        Query query = new Query(new Criteria().orOperator(matchers)
+                .and("status").regex(equalsIgnoreCase(ACTIVE_STATUS)));
+        query.fields().include("username", "password", "status", "roleIds");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<User> addRoleIdIfAbsent(String username, String roleId) {
+        Query query = new Query(usernameIs(username).and("roleIds").ne(roleId));
+        query.fields().include("username", "password", "status", "roleIds");
+        Update update = new Update()
+                .addToSet("roleIds", roleId)
+                .set("updateDate", new Date());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), User.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<User> findByNormalizedUsername(String username) {
+        return mongoTemplate.findOne(new Query(usernameIs(username)), User.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Boolean> existsByNormalizedUsername(String username) {
+        return mongoTemplate.exists(new Query(usernameIs(username)), User.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<User> updateSecurityToken(String userId, String token) {
+        Query query = new Query(Criteria.where("id").is(userId));
+        query.fields().include("username", "password", "status", "roleIds");
+        Update update = new Update()
+                .set("securityToken", token)
+                .set("updateDate", new Date());
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), User.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<User> findRoleIdsByUsernames(Collection<String> usernames) {
+        Query query = new Query(new Criteria().orOperator(
+                Criteria.where("usernameKey").in(usernames.stream().map(KeyNormalizer::normalize).toList()),
+                Criteria.where("usernameKey").exists(false).and("username").in(usernames)));
+        query.fields().include("username", "roleIds");
+        return mongoTemplate.find(query, User.class);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Long> changeRoleIdIfNeeded(Collection<String> usernames, String roleId, boolean assign) {
+        if (usernames.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        Update update = new Update().set("updateDate", new Date());
+        if (assign) {
+            update.addToSet("roleIds", roleId);
+        } else {
+            update.pull("roleIds", roleId);
+        }
+        ReactiveBulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, User.class);
+        for (String username : usernames) {
+            Criteria criteria = usernameIs(username);
+            if (assign) {
+                criteria.and("roleIds").ne(roleId);
+            } else {
+                criteria.and("roleIds").is(roleId);
+            }
+            bulkOperations.updateOne(new Query(criteria), update);
+        }
+        return bulkOperations.execute()
+                .map(result -> (long) result.getModifiedCount());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<String> findExistingUsernameKeys(Collection<String> usernameKeys) {
+        if (usernameKeys.isEmpty()) {
+            return Flux.empty();
+        }
+
+        Query query = new Query(Criteria.where("usernameKey").in(usernameKeys));
+        query.fields().include("usernameKey");
+        return mongoTemplate.find(query, User.class)
+                .map(User::getUsernameKey);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<UserSummary> searchUsers(String usernamePrefix, String status, String roleId, String afterUsername, int limit) {
+        Criteria criteria = new Criteria();
+        if (usernamePrefix != null || afterUsername != null) {
+            Criteria usernameKey = criteria.and("usernameKey");
+            if (usernamePrefix != null) {
+                // El prefijo se expresa como un rango para recorrer solo la porción necesaria del índice de usernameKey
+                String prefixKey = KeyNormalizer.normalize(usernamePrefix);
+                usernameKey.gte(prefixKey);
+                String upperBound = prefixUpperBound(prefixKey);
+                if (upperBound != null) {
+                    usernameKey.lt(upperBound);
+                }
+            }
+            if (afterUsername != null) {
+                usernameKey.gt(KeyNormalizer.normalize(afterUsername));
+            }
+        }
+        if (status != null) {
+            criteria.and("status").is(status);
+        }
+        if (roleId != null) {
+            criteria.and("roleIds").is(roleId);
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "usernameKey"))
+                .limit(limit);
+        query.fields().include("username", "status", "forcePasswordChange", "createDate", "updateDate", "roleIds");
+        return mongoTemplate.find(query, UserSummary.class, mongoTemplate.getCollectionName(User.class));
+    }
+
+    /**
+     * Calcula el menor valor mayor que todas las cadenas que comienzan con un prefijo.
+     *
+     * @param prefix el prefijo.
+     * @return el límite superior exclusivo, o {@code null} si no existe.
+     */
+    private static String prefixUpperBound(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        return end == 0 ? null : prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Map<Integer, BulkWriteError>> insertAllUnordered(List<User> users) {
+        if (users.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        List<Document> documents = users.stream()
+                .map(user -> {
+                    if (user.getId() == null) {
+                        user.setId(new ObjectId().toHexString());
+                    }
+                    Document document = new Document();
+                    mongoTemplate.getConverter().write(user, document);
+                    return document;
+                })
+                .toList();
+
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(User.class))
+                .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                .map(result -> Map.<Integer, BulkWriteError>of())
+                .onErrorResume(MongoBulkWriteException.class, e -> Mono.just(e.getWriteErrors().stream()
+                        .collect(Collectors.toMap(BulkWriteError::getIndex, Function.identity()))));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Boolean> updatePasswordIfUnchanged(String userId, String currentPassword, String newPassword) {
+        Query query = new Query(Criteria.where("id").is(userId).and("password").is(currentPassword));
+        Update update = new Update()
+                .set("password", newPassword)
+                .set("updateDate", new Date());
+        return mongoTemplate.updateFirst(query, update, User.class)
+                .map(result -> result.getModifiedCount() > 0);
+    }
+
+    /**
+     * Ejecuta la agregación que filtra un usuario, une sus roles mediante {@code $lookup}
+     * y proyecta solo los campos necesarios para los detalles del usuario.
+     * <p>
+     * Los IDs de rol se guardan como cadenas en el usuario, por lo que se convierten a {@code ObjectId}
+     * antes del {@code $lookup} para poder usar el índice de {@code _id} de la colección de roles.
+     *
+     * @param criteria el filtro sobre la colección de usuarios.
+     * @return un {@link Mono} que emite el usuario con sus roles, o vacío si no hay coincidencias.
+     */
+    private Mono<UserWithRoles> findOneWithRoles(Criteria criteria) {
+        AggregationOperation toRoleObjectIds = context -> new Document("$addFields", new Document("roleObjectIds",
+                new Document("$map", new Document("input", new Document("$ifNull", List.of("$roleIds", List.of())))
+                        .append("in", new Document("$convert", new Document("input", "$$this")
+                                .append("to", "objectId")
+                                .append("onError", "$$this"))))));
+        AggregationOperation lookupRoles = context -> new Document("$lookup", new Document("from", ROLES_COLLECTION)
+                .append("localField", "roleObjectIds")
+                .append("foreignField", "_id")
+                .append("as", "roles"));
+        AggregationOperation projectDetails = context -> new Document("$project", new Document("username", 1)
+                .append("password", 1)
+                .append("status", 1)
+                .append("roles", new Document("$map", new Document("input", "$roles")
+                        .append("as", "role")
+                        .append("in", new Document("_id", "$$role._id")
+                                .append("role", "$$role.role")
+                                .append("status", "$$role.status")))));
+
+        return mongoTemplate.aggregate(Aggregation.newAggregation(User.class,
+                                Aggregation.match(criteria),
+                                Aggregation.limit(1),
+                                toRoleObjectIds,
+                                lookupRoles,
+                                projectDetails),
+                        UserWithRoles.class)
+                .next();
+    }
+
+    /**
+     * Construye el filtro de un usuario por su nombre de usuario normalizado. Los usuarios que aún no tienen
+     * {@code usernameKey}, porque la migración no pudo completarla, se buscan por su nombre de usuario exacto.
+     *
+     * @param username el nombre de usuario a buscar.
+     * @return el filtro sobre la colección de usuarios.
+     */
+    private static Criteria usernameIs(String username) {
+        return new Criteria().orOperator(
+                Criteria.where("usernameKey").is(KeyNormalizer.normalize(username)),
+                Criteria.where("usernameKey").exists(false).and("username").is(username));
+    }
+
+    /**
+     * Construye una expresión regular anclada que compara un valor literal sin distinguir mayúsculas y minúsculas.
+     * Solo se usa para filtrar el estado una vez acotada la consulta por un campo indexado.
+     *
+     * @param value el valor literal a comparar.
+     * @return el patrón de comparación.
+     */
+    private static Pattern equalsIgnoreCase(String value) {
+        return Pattern.compile("^" + Pattern.quote(value) + "$", Pattern.CASE_INSENSITIVE);
+    }
+}
@@ -0,0 +1,81 @@
+package com.diceprojects.msvcauthorization.security;
+
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Limita los intentos fallidos de verificación de credenciales por nombre de usuario.
+ * <p>
+ * Cada fallo incrementa un contador en memoria que expira tras la ventana de bloqueo contada desde el último fallo.
+ * Al alcanzar la cantidad máxima de fallos, el usuario queda bloqueado hasta que el contador expire o hasta
+ * una verificación exitosa. Los intentos rechazados por bloqueo se publican en la métrica {@code login.attempts.throttled}.
+ */
+@Component
+public class LoginAttemptThrottle {
+
+    private final Cache<String, Integer> failuresByUsername;
+    private final int maxFailures;
+    private final Counter throttledCounter;
+
+    /**
+     * Constructor de LoginAttemptThrottle.
+     *
+     * @param meterRegistry el registro de métricas donde se publican los intentos bloqueados.
+     * @param maxFailures   la cantidad de fallos consecutivos tras la cual se bloquean los intentos.
+     * @param lockout       el tiempo durante el cual se recuerdan los fallos desde el último intento fallido.
+     * @param maxSize       la cantidad máxima de nombres de usuario con fallos que se mantienen en memoria.
+     */
+    public LoginAttemptThrottle(MeterRegistry meterRegistry,
+                                @Value("${msvc.security.login.max-failures:5}") int maxFailures,
+                                @Value("${msvc.security.login.lockout:15m}") Duration lockout,
+                                @Value("${msvc.security.login.max-size:100000}") long maxSize) {
+        this.maxFailures = maxFailures;
+        this.failuresByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(lockout)
+                .build();
+        this.throttledCounter = Counter.builder("login.attempts.throttled")
+                .description("Verificaciones de credenciales rechazadas por exceso de intentos fallidos")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica si los intentos de un usuario están bloqueados, contabilizando el rechazo en ese caso.
+     *
+     * @param username el nombre de usuario.
+     * @return {@code true} si el usuario alcanzó la cantidad máxima de fallos.
+     */
+    public boolean isBlocked(String username) {
+        Integer failures = failuresByUsername.getIfPresent(KeyNormalizer.normalize(username));
+        boolean blocked = failures != null && failures >= maxFailures;
+        if (blocked) {
+            throttledCounter.increment();
+        }
+        return blocked;
+    }
+
+    /**
+     * Registra un intento fallido para un usuario.
+     *
+     * @param username el nombre de usuario.
+     */
+    public void recordFailure(String username) {
+        failuresByUsername.asMap().merge(KeyNormalizer.normalize(username), 1, Integer::sum);
+    }
+
+    /**
+     * Reinicia el contador de fallos de un usuario tras una verificación exitosa.
+     *
+     * @param username el nombre de usuario.
+     */
+    public void reset(String username) {
+        failuresByUsername.invalidate(KeyNormalizer.normalize(username));
+    }
+}
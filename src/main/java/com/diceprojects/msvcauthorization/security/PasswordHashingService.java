@@ -0,0 +1,149 @@
+package com.diceprojects.msvcauthorization.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servicio asíncrono para codificar y verificar contraseñas fuera del event loop de WebFlux.
+ * <p>
+ * Las operaciones se ejecutan en un pool dedicado con una cantidad fija de hilos y una cola acotada.
+ * Cuando la cola está llena, las nuevas solicitudes se rechazan con un error 503 en lugar de acumularse,
+ * de modo que un pico de registros no pueda dejar sin recursos al resto de las operaciones.
+ * La profundidad de la cola, los hilos activos, la duración de cada operación y los rechazos se publican como métricas.
+ */
+@Service
+public class PasswordHashingService implements DisposableBean {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Scheduler scheduler;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedCounter;
+
+    /**
+     * Constructor de PasswordHashingService.
+     *
+     * @param passwordEncoder el codificador de contraseñas.
+     * @param meterRegistry   el registro de métricas del pool.
+     * @param threads         la cantidad de hilos del pool; por defecto, la cantidad de procesadores disponibles.
+     * @param queueCapacity   la cantidad máxima de operaciones en espera antes de rechazar nuevas solicitudes.
+     */
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${msvc.security.password.hashing-threads:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int threads,
+                                  @Value("${msvc.security.password.hashing-queue-capacity:200}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.scheduler = Schedulers.fromExecutorService(executor, "password-hashing");
+        this.encodeTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "encode")
+                .description("Duración de la codificación de una contraseña")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hashing.duration")
+                .tag("operation", "matches")
+                .description("Duración de la verificación de una contraseña")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("Operaciones rechazadas por saturación del pool de codificación")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Operaciones en espera en el pool de codificación")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Operaciones en ejecución en el pool de codificación")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Codifica una contraseña en el pool dedicado.
+     *
+     * @param rawPassword la contraseña en texto plano.
+     * @return un {@link Mono} que emite la contraseña codificada, o un error 503 si el pool está saturado.
+     */
+    public Mono<String> encode(CharSequence rawPassword) {
+        return execute(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * Verifica una contraseña contra su valor codificado en el pool dedicado.
+     *
+     * @param rawPassword     la contraseña en texto plano.
+     * @param encodedPassword la contraseña codificada almacenada.
+     * @return un {@link Mono} que emite {@code true} si la contraseña coincide, o un error 503 si el pool está saturado.
+     */
+    public Mono<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Indica si una contraseña codificada usa un algoritmo o un costo desactualizado y debe volver a codificarse.
+     * Esta verificación no codifica nada, por lo que se ejecuta directamente sin usar el pool.
+     *
+     * @param encodedPassword la contraseña codificada almacenada.
+     * @return {@code true} si la contraseña debe volver a codificarse.
+     */
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Ejecuta una operación en el pool dedicado, midiendo su duración y traduciendo los rechazos por saturación.
+     *
+     * @param timer     el temporizador donde se registra la duración.
+     * @param operation la operación a ejecutar.
+     * @return un {@link Mono} que emite el resultado de la operación.
+     */
+    private <T> Mono<T> execute(Timer timer, Callable<T> operation) {
+        return Mono.fromCallable(() -> timer.recordCallable(operation))
+                .subscribeOn(scheduler)
+                .onErrorMap(RejectedExecutionException.class, e -> {
+                    rejectedCounter.increment();
+                    return new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "El servicio de contraseñas está saturado, intente nuevamente", e);
+                });
+    }
+
+    /**
+     * Libera el pool dedicado al detener la aplicación.
+     */
+    @Override
+    public void destroy() {
+        scheduler.dispose();
+        executor.shutdown();
+    }
+
+    /**
+     * Fábrica de hilos con nombre descriptivo para el pool de codificación.
+     */
+    private static class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package com.diceprojects.msvcauthorization.security;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Configuración de seguridad para la aplicación.
@@ -15,16 +22,51 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class SecurityConfig {
 
     /**
-     * Define un bean de {@link PasswordEncoder} que utiliza el algoritmo BCrypt.
+     * Define un bean de {@link PasswordEncoder} que delega en el algoritmo configurado para cada despliegue.
+     * <p>
+     * Con {@code msvc.security.password.prefixed-hashes} activo, las contraseñas nuevas se codifican con el algoritmo
+     * indicado en {@code msvc.security.password.algorithm} ({@code bcrypt}, {@code pbkdf2} o {@code argon2}) y se
+     * almacenan con el prefijo de su algoritmo, por ejemplo {@code {bcrypt}...}. Las contraseñas existentes sin prefijo
+     * se verifican como BCrypt, y {@link PasswordEncoder#upgradeEncoding(String)} indica cuándo una contraseña usa un
+     * algoritmo o un costo desactualizado y debe volver a codificarse.
      * <p>
-     * Este bean proporciona una instancia de {@link BCryptPasswordEncoder}, que se utiliza
-     * para cifrar las contraseñas de los usuarios antes de almacenarlas en la base de datos.
+     * Mientras el prefijo esté desactivado, las contraseñas se siguen escribiendo como BCrypt sin prefijo y nunca se
+     * vuelven a codificar, porque los servicios que verifican las credenciales fuera de este microservicio solo
+     * reconocen ese formato.
      *
-     * @return una instancia de {@link BCryptPasswordEncoder}.
+     * @param algorithm      el algoritmo con el que se codifican las contraseñas nuevas.
+     * @param bcryptStrength el costo de BCrypt.
+     * @param prefixedHashes si las contraseñas nuevas se almacenan con el prefijo de su algoritmo.
+     * @return una instancia de {@link DelegatingPasswordEncoder}, o de {@link BCryptPasswordEncoder} sin prefijo.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${msvc.security.password.algorithm:bcrypt}") String algorithm,
+                                           @Value("${msvc.security.password.bcrypt-strength:10}") int bcryptStrength,
+                                           @Value("${msvc.security.password.prefixed-hashes:false}") boolean prefixedHashes) {
+        if (!prefixedHashes) {
+            if (!"bcrypt".equals(algorithm)) {
+                throw new IllegalStateException("El algoritmo " + algorithm + " requiere msvc.security.password.prefixed-hashes=true");
+            }
+            return new BCryptPasswordEncoder(bcryptStrength) {
+                @Override
+                public boolean upgradeEncoding(String encodedPassword) {
+                    return false;
+                }
+            };
+        }
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("Algoritmo de contraseñas no soportado: " + algorithm);
+        }
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(algorithm, encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return passwordEncoder;
     }
 }
-
@@ -0,0 +1,23 @@
+package com.diceprojects.msvcauthorization.services;
+
+import com.diceprojects.msvcauthorization.persistences.models.dtos.AuthorizationDecisionDTO;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Interfaz que proporciona decisiones de autorización basadas en los roles de los usuarios.
+ */
+public interface AuthorizationService {
+
+    /**
+     * Decide si un usuario activo tiene un rol, o al menos uno de varios roles, activo.
+     * Exactamente uno de {@code role} o {@code anyOf} debe indicarse. Los nombres de rol no distinguen mayúsculas y minúsculas.
+     *
+     * @param username el nombre de usuario.
+     * @param role     el rol requerido, o {@code null} si se indica {@code anyOf}.
+     * @param anyOf    los roles de los cuales el usuario debe tener al menos uno, o {@code null} si se indica {@code role}.
+     * @return un {@link Mono} que emite la decisión, o un error 400 si el requisito no es válido.
+     */
+    Mono<AuthorizationDecisionDTO> authorize(String username, String role, List<String> anyOf);
+}
@@ -0,0 +1,100 @@
+package com.diceprojects.msvcauthorization.services;
+
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
+import com.diceprojects.msvcauthorization.exceptions.ErrorHandler;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.AuthorizationDecisionDTO;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Implementación de la interfaz {@link AuthorizationService} que resuelve las decisiones a partir de los detalles
+ * del usuario y las mantiene en una caché en memoria. Solo se guardan las decisiones calculadas a partir de los detalles
+ * de un usuario existente y activo: un usuario inexistente, inactivo o sin roles se rechaza sin guardar la decisión,
+ * y un error al cargar al usuario se propaga sin convertirse en una denegación.
+ */
+@Service
+public class AuthorizationServiceImpl implements AuthorizationService {
+
+    private final UserService userService;
+    private final AuthorizationDecisionCache decisionCache;
+    private final RoleIndex roleIndex;
+
+    /**
+     * Constructor para inyectar las dependencias necesarias.
+     *
+     * @param userService   el servicio para obtener los detalles de los usuarios.
+     * @param decisionCache la caché de decisiones de autorización.
+     * @param roleIndex     el índice de roles para resolver las verificaciones con operaciones de bits.
+     */
+    public AuthorizationServiceImpl(UserService userService, AuthorizationDecisionCache decisionCache, RoleIndex roleIndex) {
+        this.userService = userService;
+        this.decisionCache = decisionCache;
+        this.roleIndex = roleIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<AuthorizationDecisionDTO> authorize(String username, String role, List<String> anyOf) {
+        Set<String> requiredRoles = requiredRoles(role, anyOf);
+        if (username == null || username.isBlank() || requiredRoles.isEmpty()) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Se debe indicar el usuario y exactamente uno de los parámetros role o anyOf"));
+        }
+
+        String requirement = String.join(",", requiredRoles);
+        return Mono.defer(() -> {
+                    Boolean cachedDecision = decisionCache.get(username, requirement);
+                    if (cachedDecision != null) {
+                        return Mono.just(cachedDecision);
+                    }
+
+                    long cacheToken = decisionCache.token();
+                    return userService.findByUsername(username)
+                            .map(userDetails -> roleIndex.hasAnyActive(userDetails.getRoleBits(), roleIndex.bitsForNames(requiredRoles)))
+                            .doOnNext(allowed -> decisionCache.put(username, requirement, allowed, cacheToken))
+                            // Un usuario sin roles se rechaza sin guardar la decisión; otros errores se propagan
+                            .onErrorResume(e -> e instanceof ResponseStatusException statusException && statusException.getStatusCode() == HttpStatus.NOT_FOUND,
+                                    e -> Mono.just(false));
+                })
+                // Un usuario inexistente o inactivo se rechaza sin guardar la decisión, porque puede crearse después
+                .defaultIfEmpty(false)
+                .map(AuthorizationDecisionDTO::of)
+                .doOnError(e -> !(e instanceof ResponseStatusException),
+                        e -> ErrorHandler.handleError("Error resolviendo la autorización del usuario", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * Normaliza el requisito de roles en un conjunto ordenado de nombres de rol.
+     *
+     * @param role  el rol requerido, o {@code null}.
+     * @param anyOf los roles alternativos, o {@code null}.
+     * @return los nombres de rol normalizados, o un conjunto vacío si el requisito no es válido.
+     */
+    private static Set<String> requiredRoles(String role, List<String> anyOf) {
+        boolean hasRole = role != null && !role.isBlank();
+        boolean hasAnyOf = anyOf != null && !anyOf.isEmpty();
+        Set<String> requiredRoles = new TreeSet<>();
+        if (hasRole == hasAnyOf) {
+            return requiredRoles;
+        }
+
+        (hasRole ? List.of(role) : anyOf).stream()
+                .filter(Objects::nonNull)
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .map(KeyNormalizer::normalize)
+                .forEach(requiredRoles::add);
+        return requiredRoles;
+    }
+}
@@ -30,10 +30,10 @@ public interface RoleService {
     Mono<Role> findOrCreateRole(String roleName, String description);
 
     /**
-     * Crea un nuevo rol.
+     * Crea un nuevo rol. Si el DTO indica roles heredados, se valida que existan.
      *
      * @param createRoleDTO el DTO que contiene la información del rol a crear.
-     * @return un {@link Mono} que emite el rol creado, o un error si la creación falla.
+     * @return un {@link Mono} que emite el rol creado, o un error si la creación falla o los roles heredados no son válidos.
      */
     Mono<Role> createRole(CreateRoleDTO createRoleDTO);
 
@@ -48,12 +48,22 @@ public interface RoleService {
     /**
      * Actualiza un rol existente.
      *
-     * @param roleId      el ID del rol a actualizar.
-     * @param roleName    el nuevo nombre del rol.
-     * @param description la nueva descripción del rol.
-     * @return un {@link Mono} que emite el rol actualizado.
+     * @param roleId           el ID del rol a actualizar.
+     * @param roleName         el nuevo nombre del rol.
+     * @param description      la nueva descripción del rol.
+     * @param inheritedRoleIds los IDs de los roles que hereda, o {@code null} para conservar los actuales.
+     * @return un {@link Mono} que emite el rol actualizado, o un error 400 si la herencia no es válida o forma un ciclo.
      */
-    Mono<Role> updateRole(String roleId, String roleName, String description);
+    Mono<Role> updateRole(String roleId, String roleName, String description, Set<String> inheritedRoleIds);
+
+    /**
+     * Carga todos los roles en el índice de roles, precalculando la clausura de la jerarquía de herencia.
+     * Al completar se invalidan los detalles de usuario y las decisiones de autorización en caché,
+     * ya que pudieron resolverse antes de la carga sin sus roles heredados.
+     *
+     * @return un {@link Mono} que completa cuando la jerarquía está cargada.
+     */
+    Mono<Void> loadRoleHierarchy();
 
     /**
      * Cambia el estado de un rol.
@@ -65,11 +75,32 @@ public interface RoleService {
     Mono<Object> changeRoleStatus(String roleId, String status);
 
     /**
-     * Lista todos los roles.
+     * Lista una página de roles ordenados por ID, usando paginación por cursor.
+     *
+     * @param afterId el ID del último rol de la página anterior, o {@code null} para obtener la primera página.
+     * @param status  el estado por el que filtrar, o {@code null} para no filtrar.
+     * @param size    el tamaño de la página, o {@code null} para usar el tamaño por defecto; se limita al tamaño máximo configurado.
+     * @return un {@link Flux} que emite los roles de la página, o un error 400 si el cursor o el tamaño no son válidos.
+     */
+    Flux<Role> listRoles(String afterId, String status, Integer size);
+
+    /**
+     * Calcula el tamaño de página que aplica {@link #listRoles(String, String, Integer)} para un tamaño solicitado.
+     *
+     * @param size el tamaño de página solicitado, o {@code null} para usar el tamaño por defecto.
+     * @return el tamaño de página efectivo, limitado al tamaño máximo configurado.
+     */
+    int resolvePageSize(Integer size);
+
+    /**
+     * Emite en streaming los roles ordenados por ID a medida que los produce el cursor de MongoDB.
      *
-     * @return un {@link Flux} que emite todos los roles.
+     * @param afterId el ID a partir del cual comenzar, o {@code null} para comenzar desde el principio.
+     * @param status  el estado por el que filtrar, o {@code null} para no filtrar.
+     * @param size    la cantidad máxima de roles a emitir, o {@code null} para emitir todos los restantes.
+     * @return un {@link Flux} que emite los roles, o un error 400 si el cursor o el tamaño no son válidos.
      */
-    Flux<Role> listRoles();
+    Flux<Role> streamRoles(String afterId, String status, Integer size);
 
     /**
      * Obtiene el rol por defecto para los usuarios.
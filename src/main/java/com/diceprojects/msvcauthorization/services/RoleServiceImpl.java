@@ -1,11 +1,19 @@
 package com.diceprojects.msvcauthorization.services;
 
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.RoleCache;
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
+import com.diceprojects.msvcauthorization.cache.UserDetailsCache;
+import com.diceprojects.msvcauthorization.cache.invalidation.CacheInvalidationPublisher;
 import com.diceprojects.msvcauthorization.exceptions.ErrorHandler;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.CreateRoleDTO;
 import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
 import com.diceprojects.msvcauthorization.persistences.models.mappers.RoleMapper;
 import com.diceprojects.msvcauthorization.persistences.repositories.RoleRepository;
 import com.diceprojects.msvcauthorization.utils.EntityStatusService;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -15,7 +23,10 @@ import reactor.core.publisher.Mono;
 import javax.management.relation.RoleNotFoundException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Implementación de la interfaz {@link RoleService} que proporciona servicios de gestión de roles.
@@ -23,20 +34,48 @@ import java.util.Set;
 @Service
 public class RoleServiceImpl implements RoleService {
 
+    private static final String DEFAULT_USER_ROLE = "USER";
+
     private final RoleRepository roleRepository;
     private final EntityStatusService entityStatusService;
     private final RoleMapper roleMapper;
+    private final RoleCache roleCache;
+    private final RoleIndex roleIndex;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthorizationDecisionCache decisionCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     /**
      * Constructor para inyectar las dependencias necesarias.
      *
      * @param roleRepository      el repositorio para gestionar roles.
      * @param entityStatusService el servicio para manejar el estado activo de las entidades.
+     * @param roleMapper          el mapper para construir roles a partir de DTOs.
+     * @param roleCache           la caché en memoria de roles.
+     * @param roleIndex           el índice de roles, que mantiene la jerarquía de herencia precalculada.
+     * @param userDetailsCache    la caché de detalles de usuario, que se invalida cuando cambia un rol asignado.
+     * @param decisionCache       la caché de decisiones de autorización, que se invalida cuando cambia un rol.
+     * @param invalidationPublisher el publicador de eventos para invalidar las cachés de las demás instancias.
+     * @param defaultPageSize     el tamaño de página por defecto al listar roles.
+     * @param maxPageSize         el tamaño de página máximo al listar roles.
      */
-    public RoleServiceImpl(RoleRepository roleRepository, EntityStatusService entityStatusService, RoleMapper roleMapper) {
+    public RoleServiceImpl(RoleRepository roleRepository, EntityStatusService entityStatusService, RoleMapper roleMapper,
+                           RoleCache roleCache, RoleIndex roleIndex, UserDetailsCache userDetailsCache, AuthorizationDecisionCache decisionCache,
+                           CacheInvalidationPublisher invalidationPublisher,
+                           @Value("${msvc.role.list.default-size:100}") int defaultPageSize,
+                           @Value("${msvc.role.list.max-size:1000}") int maxPageSize) {
         this.roleRepository = roleRepository;
         this.entityStatusService = entityStatusService;
         this.roleMapper = roleMapper;
+        this.roleCache = roleCache;
+        this.roleIndex = roleIndex;
+        this.userDetailsCache = userDetailsCache;
+        this.decisionCache = decisionCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -44,8 +83,18 @@ public class RoleServiceImpl implements RoleService {
      */
     @Override
     public Mono<Role> findByRoleName(String roleName) {
-        return roleRepository.findByRoleIgnoreCase(roleName)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Role not found")));
+        return Mono.defer(() -> {
+            Role cachedRole = roleCache.getByName(roleName);
+            if (cachedRole != null) {
+                return Mono.just(cachedRole);
+            }
+            long cacheToken = roleCache.token();
+            return roleRepository.findByRoleKey(KeyNormalizer.normalize(roleName))
+                    // Los roles que aún no tienen roleKey se buscan por su nombre exacto
+                    .switchIfEmpty(Mono.defer(() -> roleRepository.findByRole(roleName)))
+                    .doOnNext(role -> roleCache.put(role, cacheToken))
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Role not found")));
+        });
     }
 
     /**
@@ -71,11 +120,16 @@ public class RoleServiceImpl implements RoleService {
     @Override
     public Mono<Role> createRole(CreateRoleDTO createRoleDTO) {
         return entityStatusService.obtenerEstadoActivo()
-                .flatMap(activeStatus -> {
-                    Role role = roleMapper.mapToRole(createRoleDTO, activeStatus);
-                    return roleRepository.save(role)
-                            .doOnError(e -> ErrorHandler.handleError("Error creando el rol", e, HttpStatus.INTERNAL_SERVER_ERROR));
-                });
+                .flatMap(activeStatus -> validateInheritance(null, createRoleDTO.getInheritedRoleIds())
+                        .then(Mono.defer(() -> {
+                            Role role = roleMapper.mapToRole(createRoleDTO, activeStatus);
+                            return roleRepository.save(role)
+                                    .doOnNext(savedRole -> {
+                                        roleCache.put(savedRole);
+                                        invalidationPublisher.roleChanged(savedRole.getId());
+                                    })
+                                    .doOnError(e -> ErrorHandler.handleError("Error creando el rol", e, HttpStatus.INTERNAL_SERVER_ERROR));
+                        })));
     }
 
     /**
@@ -83,7 +137,18 @@ public class RoleServiceImpl implements RoleService {
      */
     @Override
     public Flux<Role> findRolesByIds(Set<String> roleIds) {
-        return roleRepository.findAllById(roleIds)
+        return Flux.defer(() -> {
+                    Map<String, Role> cachedRoles = roleCache.getAllById(roleIds);
+                    Set<String> missingRoleIds = new HashSet<>(roleIds);
+                    missingRoleIds.removeAll(cachedRoles.keySet());
+
+                    long cacheToken = roleCache.token();
+                    Flux<Role> missingRoles = missingRoleIds.isEmpty()
+                            ? Flux.empty()
+                            : roleRepository.findAllById(missingRoleIds).doOnNext(role -> roleCache.put(role, cacheToken));
+
+                    return Flux.fromIterable(cachedRoles.values()).concatWith(missingRoles);
+                })
                 .switchIfEmpty(Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Roles no encontrados")))
                 .doOnError(e -> ErrorHandler.handleError("Error encontrando roles por IDs", e, HttpStatus.INTERNAL_SERVER_ERROR));
     }
@@ -92,16 +157,73 @@ public class RoleServiceImpl implements RoleService {
      * {@inheritDoc}
      */
     @Override
-    public Mono<Role> updateRole(String roleId, String roleName, String description) {
+    public Mono<Role> updateRole(String roleId, String roleName, String description, Set<String> inheritedRoleIds) {
         return roleRepository.findById(roleId)
+                .flatMap(existingRole -> validateInheritance(roleId, inheritedRoleIds).thenReturn(existingRole))
                 .flatMap(existingRole -> {
+                    String previousRoleName = existingRole.getRole();
                     existingRole.setRole(roleName);
                     existingRole.setDescription(description);
+                    if (inheritedRoleIds != null) {
+                        existingRole.setInheritedRoleIds(new HashSet<>(inheritedRoleIds));
+                    }
                     existingRole.setUpdateDate(ZonedDateTime.now(ZoneId.systemDefault()).toLocalDateTime());
-                    return roleRepository.save(existingRole);
+                    return roleRepository.save(existingRole)
+                            .doOnNext(savedRole -> {
+                                roleCache.evictName(previousRoleName);
+                                roleCache.put(savedRole);
+                                userDetailsCache.evictByRoleId(savedRole.getId());
+                                decisionCache.evictAll();
+                                invalidationPublisher.roleChanged(savedRole.getId());
+                            });
                 })
                 .switchIfEmpty(Mono.error(new RoleNotFoundException("Role not found with id " + roleId)))
-                .doOnError(e -> ErrorHandler.handleError("Error actualizando el rol", e, HttpStatus.INTERNAL_SERVER_ERROR));
+                .doOnError(e -> !(e instanceof ResponseStatusException),
+                        e -> ErrorHandler.handleError("Error actualizando el rol", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> loadRoleHierarchy() {
+        return roleRepository.findAll()
+                .collectList()
+                .doOnNext(roles -> {
+                    roleIndex.registerAll(roles);
+                    userDetailsCache.evictAll();
+                    decisionCache.evictAll();
+                })
+                .then()
+                .doOnError(e -> ErrorHandler.handleError("Error cargando la jerarquía de roles", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * Valida los roles heredados de un rol: todos deben existir y la herencia no debe formar un ciclo.
+     * Antes de validar se recarga la jerarquía completa en el índice de roles, de modo que la detección
+     * de ciclos considere los cambios realizados por otras instancias.
+     *
+     * @param roleId           el ID del rol, o {@code null} si el rol aún no existe.
+     * @param inheritedRoleIds los IDs de los roles que heredaría, o {@code null}.
+     * @return un {@link Mono} que completa si la herencia es válida, o un error 400 si no lo es.
+     */
+    private Mono<Void> validateInheritance(String roleId, Set<String> inheritedRoleIds) {
+        if (inheritedRoleIds == null || inheritedRoleIds.isEmpty()) {
+            return Mono.empty();
+        }
+        return roleRepository.findAll()
+                .collectList()
+                .flatMap(roles -> {
+                    roleIndex.registerAll(roles);
+                    Set<String> existingRoleIds = roles.stream().map(Role::getId).collect(Collectors.toSet());
+                    if (!existingRoleIds.containsAll(inheritedRoleIds)) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Alguno de los roles heredados no existe"));
+                    }
+                    if (roleIndex.createsCycle(roleId, inheritedRoleIds)) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "La herencia de roles forma un ciclo"));
+                    }
+                    return Mono.empty();
+                });
     }
 
     /**
@@ -122,7 +244,14 @@ public class RoleServiceImpl implements RoleService {
                                 }
                                 existingRole.setStatus(status);
                                 existingRole.setUpdateDate(ZonedDateTime.now(ZoneId.systemDefault()).toLocalDateTime());
-                                return roleRepository.save(existingRole).cast(Object.class);
+                                return roleRepository.save(existingRole)
+                                        .doOnNext(savedRole -> {
+                                            roleCache.put(savedRole);
+                                            userDetailsCache.evictByRoleId(savedRole.getId());
+                                            decisionCache.evictAll();
+                                            invalidationPublisher.roleChanged(savedRole.getId());
+                                        })
+                                        .cast(Object.class);
                             })
                             .switchIfEmpty(Mono.error(new RoleNotFoundException("Role not found with id " + roleId)))
                             .doOnError(e -> ErrorHandler.handleError("Error cambiando el estado del rol", e, HttpStatus.INTERNAL_SERVER_ERROR));
@@ -133,20 +262,62 @@ public class RoleServiceImpl implements RoleService {
      * {@inheritDoc}
      */
     @Override
-    public Flux<Role> listRoles() {
-        return roleRepository.findAll()
-                .doOnError(e -> ErrorHandler.handleError("Error listando los roles", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    public Flux<Role> listRoles(String afterId, String status, Integer size) {
+        return findRolesAfter(afterId, status, resolvePageSize(size));
     }
 
     /**
      * {@inheritDoc}
      */
     @Override
-    public Mono<Role> getDefaultUserRole() {
-        return roleRepository.findByRole("USER")
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Rol USER no encontrado")));
+    public int resolvePageSize(Integer size) {
+        int pageSize = size != null ? size : defaultPageSize;
+        return Math.min(pageSize, maxPageSize);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<Role> streamRoles(String afterId, String status, Integer size) {
+        return findRolesAfter(afterId, status, size);
+    }
 
+    /**
+     * Valida el cursor y el tamaño solicitado y obtiene los roles posteriores al cursor.
+     *
+     * @param afterId el ID del último rol ya obtenido, o {@code null}.
+     * @param status  el estado por el que filtrar, o {@code null}.
+     * @param limit   la cantidad máxima de roles a obtener, o {@code null} para obtener todos.
+     * @return un {@link Flux} que emite los roles en orden ascendente de ID.
+     */
+    private Flux<Role> findRolesAfter(String afterId, String status, Integer limit) {
+        if (limit != null && limit < 1) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El tamaño de página debe ser mayor a cero"));
+        }
+        if (afterId != null && !ObjectId.isValid(afterId)) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El cursor de paginación no es válido"));
+        }
 
+        return roleRepository.findAfterId(afterId, status, limit != null ? limit : 0)
+                .doOnError(e -> !(e instanceof ResponseStatusException),
+                        e -> ErrorHandler.handleError("Error listando los roles", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Role> getDefaultUserRole() {
+        return Mono.defer(() -> {
+            Role cachedRole = roleCache.getByName(DEFAULT_USER_ROLE);
+            if (cachedRole != null && DEFAULT_USER_ROLE.equals(cachedRole.getRole())) {
+                return Mono.just(cachedRole);
+            }
+            long cacheToken = roleCache.token();
+            return roleRepository.findByRole(DEFAULT_USER_ROLE)
+                    .doOnNext(role -> roleCache.put(role, cacheToken))
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Rol USER no encontrado")));
+        });
+    }
 }
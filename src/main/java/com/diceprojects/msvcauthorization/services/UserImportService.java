@@ -0,0 +1,21 @@
+package com.diceprojects.msvcauthorization.services;
+
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserImportResultDTO;
+import reactor.core.publisher.Flux;
+
+/**
+ * Interfaz de servicio para la importación masiva de usuarios.
+ */
+public interface UserImportService {
+
+    /**
+     * Importa un flujo de usuarios, creando cada uno con el estado activo y el rol por defecto.
+     * El flujo se procesa por lotes con memoria acotada y respetando la contrapresión de la entrada.
+     *
+     * @param users el flujo de usuarios a importar.
+     * @return un {@link Flux} que emite el resultado de la importación de cada registro, en el orden de entrada.
+     */
+    Flux<UserImportResultDTO> importUsers(Flux<UserDTO> users);
+
+}
@@ -0,0 +1,224 @@
+package com.diceprojects.msvcauthorization.services;
+
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.UserDetailsCache;
+import com.diceprojects.msvcauthorization.cache.invalidation.CacheInvalidationPublisher;
+import com.diceprojects.msvcauthorization.exceptions.ErrorHandler;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserImportResultDTO;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.persistences.models.entities.User;
+import com.diceprojects.msvcauthorization.persistences.models.mappers.UserMapper;
+import com.diceprojects.msvcauthorization.persistences.repositories.UserRepository;
+import com.diceprojects.msvcauthorization.security.PasswordHashingService;
+import com.diceprojects.msvcauthorization.utils.EntityStatusService;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementación de la interfaz {@link UserImportService}.
+ * <p>
+ * Cada lote se procesa con una consulta para detectar nombres de usuario existentes, la codificación
+ * en paralelo de las contraseñas en el pool dedicado y una única inserción no ordenada en la que
+ * los usuarios ya incluyen el rol por defecto. Si la inserción de un lote falla por completo, sus registros
+ * se informan como {@code FAILED} y la importación continúa con el lote siguiente. Los usuarios creados
+ * se invalidan en las cachés de esta instancia y, mediante el bus de invalidación, en las demás.
+ */
+@Service
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportServiceImpl.class);
+
+    private final UserRepository userRepository;
+    private final RoleService roleService;
+    private final EntityStatusService entityStatusService;
+    private final UserMapper userMapper;
+    private final PasswordHashingService passwordHashingService;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthorizationDecisionCache decisionCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final int batchSize;
+    private final int hashingParallelism;
+
+    /**
+     * Constructor para inyectar las dependencias necesarias.
+     *
+     * @param userRepository         el repositorio para gestionar usuarios.
+     * @param roleService            el servicio para obtener el rol por defecto.
+     * @param entityStatusService    el servicio para obtener el estado activo de las entidades.
+     * @param userMapper             el mapper para crear nuevas instancias de usuario.
+     * @param passwordHashingService el servicio que codifica las contraseñas en el pool dedicado.
+     * @param userDetailsCache       la caché de detalles de usuario.
+     * @param decisionCache          la caché de decisiones de autorización.
+     * @param invalidationPublisher  el publicador de eventos para invalidar las cachés de las demás instancias.
+     * @param batchSize              la cantidad de usuarios por lote de inserción.
+     * @param hashingParallelism     la cantidad de contraseñas que se codifican en paralelo.
+     */
+    public UserImportServiceImpl(UserRepository userRepository, RoleService roleService,
+                                 EntityStatusService entityStatusService, UserMapper userMapper,
+                                 PasswordHashingService passwordHashingService, UserDetailsCache userDetailsCache,
+                                 AuthorizationDecisionCache decisionCache, CacheInvalidationPublisher invalidationPublisher,
+                                 @Value("${msvc.user.import.batch-size:500}") int batchSize,
+                                 @Value("${msvc.user.import.hashing-parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int hashingParallelism) {
+        this.userRepository = userRepository;
+        this.roleService = roleService;
+        this.entityStatusService = entityStatusService;
+        this.userMapper = userMapper;
+        this.passwordHashingService = passwordHashingService;
+        this.userDetailsCache = userDetailsCache;
+        this.decisionCache = decisionCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.batchSize = batchSize;
+        this.hashingParallelism = hashingParallelism;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<UserImportResultDTO> importUsers(Flux<UserDTO> users) {
+        return Mono.zip(entityStatusService.obtenerEstadoActivo(), roleService.getDefaultUserRole())
+                .flatMapMany(context -> {
+                    String activeStatus = context.getT1();
+                    Role defaultRole = context.getT2();
+                    if (!defaultRole.getStatus().equalsIgnoreCase(activeStatus)) {
+                        return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El rol por defecto no está activo"));
+                    }
+
+                    return users.index()
+                            .buffer(batchSize)
+                            .concatMap(batch -> importBatch(batch, activeStatus, defaultRole), 1);
+                })
+                .doOnError(e -> !(e instanceof ResponseStatusException),
+                        e -> ErrorHandler.handleError("Error importando usuarios", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * Importa un lote de registros.
+     *
+     * @param batch        los registros del lote junto con su posición en el flujo de entrada.
+     * @param activeStatus el estado activo a asignar a los usuarios.
+     * @param defaultRole  el rol por defecto a incluir en los usuarios.
+     * @return un {@link Flux} que emite el resultado de cada registro del lote, en el orden de entrada.
+     */
+    private Flux<UserImportResultDTO> importBatch(List<Tuple2<Long, UserDTO>> batch, String activeStatus, Role defaultRole) {
+        List<UserImportResultDTO> rejected = new ArrayList<>();
+        List<Tuple2<Long, UserDTO>> candidates = new ArrayList<>();
+        Set<String> batchUsernames = new HashSet<>();
+
+        for (Tuple2<Long, UserDTO> entry : batch) {
+            UserDTO userDTO = entry.getT2();
+            if (userDTO == null || isBlank(userDTO.getUsername()) || isBlank(userDTO.getPassword())) {
+                rejected.add(new UserImportResultDTO(entry.getT1(), userDTO != null ? userDTO.getUsername() : null, null,
+                        UserImportResultDTO.Status.INVALID, "El nombre de usuario y la contraseña son obligatorios"));
+            } else if (!batchUsernames.add(KeyNormalizer.normalize(userDTO.getUsername()))) {
+                rejected.add(duplicate(entry.getT1(), userDTO.getUsername()));
+            } else {
+                candidates.add(entry);
+            }
+        }
+
+        return userRepository.findExistingUsernameKeys(batchUsernames)
+                .collect(HashSet<String>::new, Set::add)
+                .flatMapMany(existingUsernames -> {
+                    List<UserImportResultDTO> results = new ArrayList<>(rejected);
+                    List<Tuple2<Long, UserDTO>> toCreate = new ArrayList<>();
+                    for (Tuple2<Long, UserDTO> entry : candidates) {
+                        if (existingUsernames.contains(KeyNormalizer.normalize(entry.getT2().getUsername()))) {
+                            results.add(duplicate(entry.getT1(), entry.getT2().getUsername()));
+                        } else {
+                            toCreate.add(entry);
+                        }
+                    }
+
+                    return Flux.fromIterable(toCreate)
+                            .flatMapSequential(entry -> passwordHashingService.encode(entry.getT2().getPassword())
+                                    .map(encodedPassword -> {
+                                        User user = userMapper.createNewUser(entry.getT2().getUsername(), encodedPassword, activeStatus);
+                                        user.getRoleIds().add(defaultRole.getId());
+                                        return user;
+                                    }), hashingParallelism)
+                            .collectList()
+                            .flatMapMany(newUsers -> userRepository.insertAllUnordered(newUsers)
+                                    .map(writeErrors -> {
+                                        for (int i = 0; i < newUsers.size(); i++) {
+                                            results.add(toResult(toCreate.get(i).getT1(), newUsers.get(i), writeErrors.get(i)));
+                                        }
+                                        return results;
+                                    })
+                                    .onErrorResume(e -> {
+                                        logger.error("Error insertando un lote de {} usuarios", newUsers.size(), e);
+                                        for (int i = 0; i < newUsers.size(); i++) {
+                                            results.add(new UserImportResultDTO(toCreate.get(i).getT1(), newUsers.get(i).getUsername(), null,
+                                                    UserImportResultDTO.Status.FAILED, "Error insertando el lote de usuarios"));
+                                        }
+                                        return Mono.just(results);
+                                    })
+                                    .flatMapMany(batchResults -> {
+                                        evictCreated(batchResults);
+                                        batchResults.sort(Comparator.comparingLong(UserImportResultDTO::getIndex));
+                                        return Flux.fromIterable(batchResults);
+                                    }));
+                });
+    }
+
+    /**
+     * Construye el resultado de un usuario a partir del error de escritura de la inserción, si lo hubo.
+     *
+     * @param index      la posición del registro en el flujo de entrada.
+     * @param user       el usuario que se intentó insertar.
+     * @param writeError el error de escritura del usuario, o {@code null} si se insertó correctamente.
+     * @return el resultado de la importación del registro.
+     */
+    private UserImportResultDTO toResult(long index, User user, BulkWriteError writeError) {
+        if (writeError == null) {
+            return new UserImportResultDTO(index, user.getUsername(), user.getId(), UserImportResultDTO.Status.CREATED, null);
+        }
+        if (ErrorCategory.fromErrorCode(writeError.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+            return duplicate(index, user.getUsername());
+        }
+        return new UserImportResultDTO(index, user.getUsername(), null, UserImportResultDTO.Status.FAILED, writeError.getMessage());
+    }
+
+    /**
+     * Invalida en caché los usuarios creados en un lote, en esta instancia y en las demás.
+     *
+     * @param results los resultados del lote.
+     */
+    private void evictCreated(List<UserImportResultDTO> results) {
+        List<String> created = results.stream()
+                .filter(result -> result.getStatus() == UserImportResultDTO.Status.CREATED)
+                .map(UserImportResultDTO::getUsername)
+                .toList();
+        created.forEach(username -> {
+            userDetailsCache.evict(username);
+            decisionCache.evictUser(username);
+        });
+        invalidationPublisher.usersChanged(created);
+    }
+
+    private static UserImportResultDTO duplicate(long index, String username) {
+        return new UserImportResultDTO(index, username, null, UserImportResultDTO.Status.DUPLICATE, "El nombre de usuario ya existe");
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -1,8 +1,14 @@
 package com.diceprojects.msvcauthorization.services;
 
+import com.diceprojects.msvcauthorization.persistences.models.dtos.BulkRoleAssignmentRequest;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleAssignmentResultDTO;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserSummary;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Interfaz de servicio para gestionar los detalles del usuario de forma reactiva.
  * <p>
@@ -16,7 +22,8 @@ public interface UserService {
      * Este método es utilizado para cargar los detalles necesarios del usuario.
      *
      * @param username el nombre de usuario del usuario a buscar.
-     * @return un {@link Mono} que emite los {@link CustomUserDetailsDTO} del usuario encontrado, o un {@link Mono} vacío si el usuario no es encontrado.
+     * @return un {@link Mono} que emite los {@link CustomUserDetailsDTO} del usuario encontrado, o un {@link Mono} vacío si el usuario no es encontrado,
+     * un error 404 si el usuario no tiene roles activos, o un error 500 si no se pudo consultar al usuario.
      */
     Mono<CustomUserDetailsDTO> findByUsername(String username);
 
@@ -65,6 +72,31 @@ public interface UserService {
      */
     Mono<CustomUserDetailsDTO> findById(String userId);
 
+    /**
+     * Verifica las credenciales de un usuario activo en el pool de codificación de contraseñas.
+     * Si la contraseña es correcta pero está codificada con un algoritmo o costo desactualizado,
+     * se vuelve a codificar y se almacena en segundo plano. Los intentos fallidos se limitan por nombre de usuario.
+     *
+     * @param username    el nombre de usuario.
+     * @param rawPassword la contraseña en texto plano.
+     * @return un {@link Mono} que emite los detalles del usuario con sus roles si las credenciales son válidas,
+     * un error 401 si no lo son, o un error 429 si el usuario superó la cantidad de intentos fallidos.
+     */
+    Mono<CustomUserDetailsDTO> verifyCredentials(String username, String rawPassword);
+
+    /**
+     * Busca usuarios por prefijo de nombre de usuario, estado y rol, usando paginación por cursor sobre el nombre de usuario.
+     * El prefijo y el cursor no distinguen mayúsculas y minúsculas.
+     *
+     * @param usernamePrefix el prefijo del nombre de usuario, o {@code null} para no filtrar.
+     * @param status         el estado por el que filtrar, o {@code null} para no filtrar.
+     * @param roleId         el ID de un rol asignado, o {@code null} para no filtrar.
+     * @param afterUsername  el nombre de usuario del último resultado de la página anterior, o {@code null} para la primera página.
+     * @param size           el tamaño de la página, o {@code null} para usar el tamaño por defecto; se limita al tamaño máximo configurado.
+     * @return un {@link Flux} que emite el resumen de los usuarios de la página, o un error 400 si el tamaño no es válido.
+     */
+    Flux<UserSummary> searchUsers(String usernamePrefix, String status, String roleId, String afterUsername, Integer size);
+
     /**
      * Asigna un rol existente a un usuario.
      *
@@ -74,4 +106,25 @@ public interface UserService {
      */
     Mono<CustomUserDetailsDTO> assignRoleToUser(String username, String roleId);
 
+    /**
+     * Obtiene los detalles de varios usuarios activos, indicados por nombre de usuario o por ID.
+     * Los usuarios se resuelven con una única consulta y sus roles con una única búsqueda deduplicada.
+     *
+     * @param usernames los nombres de usuario a resolver.
+     * @param ids       los IDs de usuario a resolver.
+     * @return un {@link Flux} que emite los detalles de los usuarios encontrados, o un error si se supera el tamaño máximo del lote.
+     */
+    Flux<CustomUserDetailsDTO> findAllByUsernamesOrIds(List<String> usernames, List<String> ids);
+
+    /**
+     * Asigna o revoca un rol a varios usuarios en una sola operación.
+     * El rol se valida una única vez y los usuarios se actualizan mediante escrituras masivas por lotes.
+     *
+     * @param roleId    el ID del rol a asignar o revocar.
+     * @param usernames los nombres de usuario a actualizar.
+     * @param operation la operación a aplicar.
+     * @return un {@link Flux} que emite el resultado de la operación para cada usuario.
+     */
+    Flux<RoleAssignmentResultDTO> bulkChangeRole(String roleId, List<String> usernames, BulkRoleAssignmentRequest.Operation operation);
+
 }
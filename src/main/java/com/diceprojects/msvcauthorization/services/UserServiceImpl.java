@@ -1,18 +1,43 @@
 package com.diceprojects.msvcauthorization.services;
 
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.UserDetailsCache;
+import com.diceprojects.msvcauthorization.cache.invalidation.CacheInvalidationPublisher;
 import com.diceprojects.msvcauthorization.exceptions.ErrorHandler;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.BulkRoleAssignmentRequest;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleAssignmentResultDTO;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
 import com.diceprojects.msvcauthorization.persistences.models.entities.User;
 import com.diceprojects.msvcauthorization.persistences.models.mappers.UserMapper;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserSummary;
+import com.diceprojects.msvcauthorization.persistences.models.projections.UserWithRoles;
 import com.diceprojects.msvcauthorization.persistences.repositories.UserRepository;
+import com.diceprojects.msvcauthorization.security.LoginAttemptThrottle;
+import com.diceprojects.msvcauthorization.security.PasswordHashingService;
 import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
 import com.diceprojects.msvcauthorization.utils.EntityStatusService;
+import com.diceprojects.msvcauthorization.utils.KeyNormalizer;
+import com.diceprojects.msvcauthorization.utils.RequestCoalescer;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.util.HashSet;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Implementación de la interfaz {@link UserService} que proporciona servicios de gestión de usuarios.
@@ -20,10 +45,25 @@ import java.util.Set;
 @Service
 public class UserServiceImpl implements UserService {
 
+    private static final Logger logger = LoggerFactory.getLogger(UserServiceImpl.class);
+
     private final UserRepository userRepository;
     private final RoleService roleService;
     private final EntityStatusService entityStatusService;
     private final UserMapper userMapper;
+    private final UserDetailsCache userDetailsCache;
+    private final AuthorizationDecisionCache decisionCache;
+    private final CacheInvalidationPublisher invalidationPublisher;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptThrottle loginAttemptThrottle;
+    private final Mono<String> dummyPassword;
+    private final int maxBatchSize;
+    private final int bulkRoleBatchSize;
+    private final int bulkRoleMaxSize;
+    private final int defaultSearchSize;
+    private final int maxSearchSize;
+    private final RequestCoalescer<String, CustomUserDetailsDTO> usernameLookups;
+    private final RequestCoalescer<String, CustomUserDetailsDTO> userIdLookups;
 
     /**
      * Constructor para inyectar las dependencias necesarias.
@@ -32,13 +72,48 @@ public class UserServiceImpl implements UserService {
      * @param roleService        el servicio para gestionar roles.
      * @param entityStatusService el servicio para manejar el estado activo de las entidades.
      * @param userMapper el mapper para transformar entidades de usuario a DTOs.
+     * @param userDetailsCache la caché de detalles de usuario ya resueltos.
+     * @param decisionCache la caché de decisiones de autorización, que se invalida cuando cambian los roles de un usuario.
+     * @param invalidationPublisher el publicador de eventos para invalidar las cachés de las demás instancias.
+     * @param passwordHashingService el servicio para codificar contraseñas fuera del event loop.
+     * @param loginAttemptThrottle el limitador de intentos fallidos de verificación de credenciales.
+     * @param maxBatchSize la cantidad máxima de usuarios que se pueden resolver en un lote.
+     * @param bulkRoleBatchSize la cantidad de usuarios por lectura al asignar o revocar roles de forma masiva.
+     * @param bulkRoleMaxSize la cantidad máxima de usuarios por solicitud de asignación masiva de roles.
+     * @param defaultSearchSize el tamaño de página por defecto al buscar usuarios.
+     * @param maxSearchSize el tamaño de página máximo al buscar usuarios.
+     * @param meterRegistry el registro de métricas para las búsquedas agrupadas.
      */
     public UserServiceImpl(UserRepository userRepository, RoleService roleService,
-                           EntityStatusService entityStatusService, UserMapper userMapper) {
+                           EntityStatusService entityStatusService, UserMapper userMapper,
+                           UserDetailsCache userDetailsCache, AuthorizationDecisionCache decisionCache,
+                           CacheInvalidationPublisher invalidationPublisher,
+                           PasswordHashingService passwordHashingService,
+                           LoginAttemptThrottle loginAttemptThrottle,
+                           @Value("${msvc.user.batch.max-size:500}") int maxBatchSize,
+                           @Value("${msvc.user.bulk-role.batch-size:500}") int bulkRoleBatchSize,
+                           @Value("${msvc.user.bulk-role.max-size:10000}") int bulkRoleMaxSize,
+                           @Value("${msvc.user.search.default-size:50}") int defaultSearchSize,
+                           @Value("${msvc.user.search.max-size:500}") int maxSearchSize,
+                           MeterRegistry meterRegistry) {
         this.userRepository = userRepository;
         this.roleService = roleService;
         this.entityStatusService = entityStatusService;
         this.userMapper = userMapper;
+        this.userDetailsCache = userDetailsCache;
+        this.decisionCache = decisionCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.passwordHashingService = passwordHashingService;
+        this.loginAttemptThrottle = loginAttemptThrottle;
+        this.dummyPassword = passwordHashingService.encode(UUID.randomUUID().toString())
+                .cache(encoded -> Duration.ofMillis(Long.MAX_VALUE), e -> Duration.ZERO, () -> Duration.ZERO);
+        this.maxBatchSize = maxBatchSize;
+        this.bulkRoleBatchSize = bulkRoleBatchSize;
+        this.bulkRoleMaxSize = bulkRoleMaxSize;
+        this.defaultSearchSize = defaultSearchSize;
+        this.maxSearchSize = maxSearchSize;
+        this.usernameLookups = new RequestCoalescer<>(meterRegistry, "findUserByUsername");
+        this.userIdLookups = new RequestCoalescer<>(meterRegistry, "findUserById");
     }
 
     /**
@@ -46,18 +121,27 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Mono<CustomUserDetailsDTO> findByUsername(String username) {
-        return userRepository.findByUsernameIgnoreCase(username)
-                .flatMap(user -> {
-                    if (user.getStatus() == null || !user.getStatus().equalsIgnoreCase("Active")) {
-                        return Mono.empty();
+        return Mono.defer(() -> {
+                    CustomUserDetailsDTO cachedUser = userDetailsCache.get(username);
+                    if (cachedUser != null) {
+                        return Mono.just(cachedUser);
                     }
 
-                    return roleService.findRolesByIds(user.getRoleIds())
-                            .collectList()
-                            .flatMap(roles -> Mono.just(userMapper.mapToUserDetails(user, new HashSet<>(roles))));
+                    return usernameLookups.execute(KeyNormalizer.normalize(username), () -> {
+                        long cacheToken = userDetailsCache.token();
+                        return userRepository.findActiveByUsernameWithRoles(username)
+                                .map(userMapper::mapToUserDetails)
+                                .flatMap(userDetails -> {
+                                    if (userDetails.getRoles().isEmpty()) {
+                                        return Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Roles no encontrados"));
+                                    }
+                                    return Mono.just(userDetails);
+                                })
+                                .doOnNext(userDetails -> cacheUserDetails(userDetails, cacheToken));
+                    });
                 })
-                .switchIfEmpty(Mono.empty())
-                .doOnError(e -> ErrorHandler.handleError("Error encontrando usuario por nombre de usuario", e, HttpStatus.NOT_FOUND));
+                .doOnError(e -> !(e instanceof ResponseStatusException),
+                        e -> ErrorHandler.handleError("Error encontrando usuario por nombre de usuario", e, HttpStatus.INTERNAL_SERVER_ERROR));
     }
 
     /**
@@ -65,10 +149,11 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Mono<CustomUserDetailsDTO> create(String username, String password) {
-        return entityStatusService.obtenerEstadoActivo()
-                .flatMap(activeStatus -> {
-                    User user = userMapper.createNewUser(username, password, activeStatus);
+        return Mono.zip(entityStatusService.obtenerEstadoActivo(), passwordHashingService.encode(password))
+                .flatMap(statusAndPassword -> {
+                    User user = userMapper.createNewUser(username, statusAndPassword.getT2(), statusAndPassword.getT1());
                     return userRepository.save(user)
+                            .doOnNext(savedUser -> evictUsers(List.of(savedUser.getUsername())))
                             .map(userMapper::mapToUserDetails);
                 })
                 .doOnError(e -> ErrorHandler.handleError("Error creating user", e, HttpStatus.INTERNAL_SERVER_ERROR));
@@ -79,7 +164,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Mono<CustomUserDetailsDTO> registerUser(String username, String password) {
-        return userRepository.findByUsername(username)
+        return userRepository.findByNormalizedUsername(username)
                 .flatMap(existingUser -> Mono.just(userMapper.mapToUserDetails(existingUser, Set.of())))
                 .switchIfEmpty(
                         this.create(username, password)
@@ -118,11 +203,12 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Mono<CustomUserDetailsDTO> updateUserToken(String userId, String token) {
-        return userRepository.findById(userId)
-                .flatMap(user -> {
-                    user.setSecurityToken(token);
-                    return userRepository.save(user)
-                            .flatMap(updatedUser -> findByUsername(updatedUser.getUsername()));
+        return Mono.defer(() -> {
+                    long cacheToken = userDetailsCache.token();
+                    return userRepository.updateSecurityToken(userId, token)
+                            .filter(updatedUser -> updatedUser.getStatus() != null && updatedUser.getStatus().equalsIgnoreCase("Active"))
+                            .flatMap(updatedUser -> mapWithRoles(List.of(updatedUser)).next())
+                            .doOnNext(userDetails -> cacheUserDetails(userDetails, cacheToken));
                 })
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado")))
                 .doOnError(e -> ErrorHandler.handleError("Error actualizando el token del usuario", e, HttpStatus.INTERNAL_SERVER_ERROR));
@@ -133,40 +219,281 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Mono<CustomUserDetailsDTO> findById(String userId) {
-        return userRepository.findById(userId)
+        return userIdLookups.execute(userId, () -> userRepository.findByIdWithRoles(userId)
+                        .map(userMapper::mapToUserDetails))
                 .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado")))
-                .flatMap(user -> roleService.findRolesByIds(user.getRoleIds())
-                        .collectList()
-                        .flatMap(roles -> {
-                            if (roles.isEmpty()) {
-                                return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Roles del usuario no encontrados o inactivos"));
-                            }
-                            return Mono.just(userMapper.mapToUserDetails(user, new HashSet<>(roles)));
-                        }))
+                .flatMap(userDetails -> {
+                    if (userDetails.getRoles().isEmpty()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "Roles del usuario no encontrados o inactivos"));
+                    }
+                    return Mono.just(userDetails);
+                })
                 .doOnError(e -> ErrorHandler.handleError("Error buscando usuario por ID", e, HttpStatus.INTERNAL_SERVER_ERROR));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<CustomUserDetailsDTO> verifyCredentials(String username, String rawPassword) {
+        if (loginAttemptThrottle.isBlocked(username)) {
+            return Mono.error(new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Demasiados intentos fallidos, intente más tarde"));
+        }
+
+        Mono<UserWithRoles> rejected = Mono.defer(() -> {
+            loginAttemptThrottle.recordFailure(username);
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Credenciales inválidas"));
+        });
+
+        return userRepository.findActiveByUsernameWithRoles(username)
+                .flatMap(user -> passwordHashingService.matches(rawPassword, user.getPassword())
+                        .filter(Boolean::booleanValue)
+                        .map(matches -> user)
+                        .switchIfEmpty(rejected))
+                // Un usuario inexistente también paga una verificación, para no revelar su existencia por el tiempo de respuesta
+                .switchIfEmpty(Mono.defer(() -> dummyPassword)
+                        .flatMap(encoded -> passwordHashingService.matches(rawPassword, encoded))
+                        .then(rejected))
+                .doOnNext(user -> {
+                    loginAttemptThrottle.reset(username);
+                    rehashIfOutdated(user.getId(), rawPassword, user.getPassword());
+                })
+                .map(userMapper::mapToUserDetails)
+                .doOnError(e -> !(e instanceof ResponseStatusException),
+                        e -> ErrorHandler.handleError("Error verificando las credenciales del usuario", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<UserSummary> searchUsers(String usernamePrefix, String status, String roleId, String afterUsername, Integer size) {
+        int pageSize = Math.min(size != null ? size : defaultSearchSize, maxSearchSize);
+        if (pageSize < 1) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "El tamaño de página debe ser mayor a cero"));
+        }
+
+        return userRepository.searchUsers(emptyToNull(usernamePrefix), emptyToNull(status), emptyToNull(roleId), emptyToNull(afterUsername), pageSize)
+                .doOnError(e -> ErrorHandler.handleError("Error buscando usuarios", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * Convierte un filtro vacío en {@code null} para que no se aplique.
+     *
+     * @param value el valor recibido.
+     * @return el valor, o {@code null} si es nulo o está vacío.
+     */
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Invalida los detalles y las decisiones de autorización en caché de usuarios creados o cuyos roles cambiaron,
+     * en esta instancia y, mediante el bus de invalidación, en las demás.
+     *
+     * @param usernames los nombres de usuario.
+     */
+    private void evictUsers(Collection<String> usernames) {
+        usernames.forEach(username -> {
+            userDetailsCache.evict(username);
+            decisionCache.evictUser(username);
+        });
+        invalidationPublisher.usersChanged(usernames);
+    }
+
+    /**
+     * Vuelve a codificar y almacena en segundo plano la contraseña de un usuario si usa un algoritmo o costo desactualizado.
+     * La contraseña solo se reemplaza si no cambió desde que fue verificada. No se invalida ninguna caché,
+     * ya que los detalles en caché no incluyen la contraseña y las credenciales siempre se verifican contra MongoDB.
+     *
+     * @param userId          el ID del usuario.
+     * @param rawPassword     la contraseña en texto plano ya verificada.
+     * @param encodedPassword la contraseña codificada almacenada.
+     */
+    private void rehashIfOutdated(String userId, String rawPassword, String encodedPassword) {
+        if (!passwordHashingService.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+
+        passwordHashingService.encode(rawPassword)
+                .flatMap(newPassword -> userRepository.updatePasswordIfUnchanged(userId, encodedPassword, newPassword))
+                .subscribe(
+                        null,
+                        error -> logger.warn("No se pudo volver a codificar la contraseña del usuario {}", userId, error)
+                );
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Mono<CustomUserDetailsDTO> assignRoleToUser(String username, String roleId) {
-        return userRepository.findByUsername(username)
-                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado")))
-                .flatMap(user -> roleService.findRolesByIds(Set.of(roleId))
-                        .single()  // Esperamos un solo rol
-                        .flatMap(role -> {
-                            if (user.getRoleIds().contains(role.getId())) {
-                                return Mono.error(new ResponseStatusException(HttpStatus.CONFLICT, "El rol ya está asignado al usuario."));
-                            }
-
-                            user.getRoleIds().add(role.getId());
-
-                            return userRepository.save(user)
-                                    .flatMap(savedUser -> Mono.just(userMapper.mapToUserDetails(savedUser, Set.of(role))));
-                        })
-                )
+        return roleService.findRolesByIds(Set.of(roleId))
+                .single()  // Esperamos un solo rol
+                .flatMap(role -> userRepository.addRoleIdIfAbsent(username, role.getId())
+                        .switchIfEmpty(Mono.defer(() -> userRepository.existsByNormalizedUsername(username)
+                                .flatMap(exists -> Mono.error(exists
+                                        ? new ResponseStatusException(HttpStatus.CONFLICT, "El rol ya está asignado al usuario.")
+                                        : new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado")))))
+                        .doOnNext(updatedUser -> evictUsers(List.of(updatedUser.getUsername())))
+                        .map(updatedUser -> userMapper.mapToUserDetails(updatedUser, Set.of(role))))
                 .doOnError(e -> ErrorHandler.handleError("Error asignando rol al usuario", e, HttpStatus.INTERNAL_SERVER_ERROR));
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<CustomUserDetailsDTO> findAllByUsernamesOrIds(List<String> usernames, List<String> ids) {
+        Set<String> requestedUsernames = usernames != null ? new LinkedHashSet<>(usernames) : new LinkedHashSet<>();
+        Set<String> requestedIds = ids != null ? new LinkedHashSet<>(ids) : new LinkedHashSet<>();
+        requestedUsernames.remove(null);
+        requestedIds.remove(null);
+
+        if (requestedUsernames.size() + requestedIds.size() > maxBatchSize) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El lote supera el tamaño máximo permitido de " + maxBatchSize + " usuarios"));
+        }
+
+        return Flux.defer(() -> {
+                    List<CustomUserDetailsDTO> cachedUsers = new ArrayList<>();
+                    List<String> missingUsernames = new ArrayList<>();
+                    for (String username : requestedUsernames) {
+                        CustomUserDetailsDTO cachedUser = userDetailsCache.get(username);
+                        if (cachedUser != null) {
+                            cachedUsers.add(cachedUser);
+                        } else {
+                            missingUsernames.add(username);
+                        }
+                    }
+
+                    long cacheToken = userDetailsCache.token();
+                    Flux<CustomUserDetailsDTO> loadedUsers = userRepository.findActiveByUsernamesOrIds(missingUsernames, requestedIds)
+                            .collectList()
+                            .flatMapMany(this::mapWithRoles)
+                            .doOnNext(userDetails -> cacheUserDetails(userDetails, cacheToken));
+
+                    return Flux.fromIterable(cachedUsers).concatWith(loadedUsers);
+                })
+                .distinct(CustomUserDetailsDTO::getId)
+                .doOnError(e -> ErrorHandler.handleError("Error resolviendo el lote de usuarios", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Flux<RoleAssignmentResultDTO> bulkChangeRole(String roleId, List<String> usernames, BulkRoleAssignmentRequest.Operation operation) {
+        Set<String> requestedUsernames = usernames != null ? new LinkedHashSet<>(usernames) : new LinkedHashSet<>();
+        requestedUsernames.remove(null);
+
+        if (requestedUsernames.size() > bulkRoleMaxSize) {
+            return Flux.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "La solicitud supera el tamaño máximo permitido de " + bulkRoleMaxSize + " usuarios"));
+        }
+
+        boolean assign = operation != BulkRoleAssignmentRequest.Operation.REVOKE;
+        return roleService.findRolesByIds(Set.of(roleId))
+                .single()  // Esperamos un solo rol
+                .flatMapMany(role -> Flux.fromIterable(requestedUsernames)
+                        .buffer(bulkRoleBatchSize)
+                        .concatMap(batch -> changeRoleForBatch(batch, role.getId(), assign)))
+                .doOnError(e -> ErrorHandler.handleError("Error asignando el rol de forma masiva", e, HttpStatus.INTERNAL_SERVER_ERROR));
+    }
+
+    /**
+     * Asigna o revoca un rol a un lote de usuarios con una lectura y una única escritura masiva no ordenada.
+     * Los usuarios que ya están en el estado deseado no se incluyen en la escritura. Como cada actualización es
+     * condicional, si la escritura modificó a todos los usuarios pendientes cada uno se informa como modificado.
+     * Si modificó menos, porque otra solicitud cambió a alguno en paralelo, se relee el lote una vez y se informan
+     * como modificados los usuarios pendientes que quedaron en el estado deseado.
+     *
+     * @param usernames los nombres de usuario del lote.
+     * @param roleId    el ID del rol ya validado.
+     * @param assign    {@code true} para asignar el rol, {@code false} para revocarlo.
+     * @return un {@link Flux} que emite el resultado para cada usuario del lote.
+     */
+    private Flux<RoleAssignmentResultDTO> changeRoleForBatch(List<String> usernames, String roleId, boolean assign) {
+        return userRepository.findRoleIdsByUsernames(usernames)
+                .collectMap(user -> KeyNormalizer.normalize(user.getUsername()), User::getRoleIds)
+                .flatMapMany(roleIdsByKey -> {
+                    Set<String> pending = usernames.stream()
+                            .filter(username -> roleIdsByKey.containsKey(KeyNormalizer.normalize(username))
+                                    && roleIdsByKey.get(KeyNormalizer.normalize(username)).contains(roleId) != assign)
+                            .collect(Collectors.toSet());
+
+                    Mono<Set<String>> write = userRepository.changeRoleIdIfNeeded(pending, roleId, assign)
+                            .flatMap(modifiedCount -> modifiedCount == pending.size()
+                                    ? Mono.just(pending)
+                                    : findUsernamesInState(pending, roleId, assign))
+                            .doOnNext(modified -> {
+                                if (!modified.isEmpty()) {
+                                    evictUsers(modified);
+                                }
+                            });
+
+                    RoleAssignmentResultDTO.Outcome changed = assign
+                            ? RoleAssignmentResultDTO.Outcome.ASSIGNED
+                            : RoleAssignmentResultDTO.Outcome.REVOKED;
+                    return write.flatMapMany(modified -> Flux.fromIterable(usernames)
+                            .map(username -> new RoleAssignmentResultDTO(username, !roleIdsByKey.containsKey(KeyNormalizer.normalize(username))
+                                    ? RoleAssignmentResultDTO.Outcome.NOT_FOUND
+                                    : modified.contains(username) ? changed : RoleAssignmentResultDTO.Outcome.UNCHANGED)));
+                });
+    }
+
+    /**
+     * Obtiene, con una única lectura, cuáles de los usuarios indicados tienen el rol asignado o revocado.
+     *
+     * @param usernames los nombres de usuario.
+     * @param roleId    el ID del rol.
+     * @param assigned  {@code true} para obtener los usuarios que tienen el rol, {@code false} para los que no lo tienen.
+     * @return un {@link Mono} que emite los nombres de usuario, tal como se indicaron, que están en el estado buscado.
+     */
+    private Mono<Set<String>> findUsernamesInState(Set<String> usernames, String roleId, boolean assigned) {
+        return userRepository.findRoleIdsByUsernames(usernames)
+                .filter(user -> user.getRoleIds().contains(roleId) == assigned)
+                .map(user -> KeyNormalizer.normalize(user.getUsername()))
+                .collect(Collectors.toSet())
+                .map(keys -> usernames.stream()
+                        .filter(username -> keys.contains(KeyNormalizer.normalize(username)))
+                        .collect(Collectors.toSet()));
+    }
+
+    /**
+     * Almacena los detalles de un usuario en caché si pueden servirse tal cual desde {@link #findByUsername(String)}.
+     * Los usuarios sin roles activos no se almacenan, ya que la búsqueda por nombre responde 404 para ellos.
+     *
+     * @param userDetails los detalles del usuario.
+     * @param cacheToken  la marca obtenida con {@link UserDetailsCache#token()} antes de iniciar la carga.
+     */
+    private void cacheUserDetails(CustomUserDetailsDTO userDetails, long cacheToken) {
+        if (!userDetails.getRoles().isEmpty()) {
+            userDetailsCache.put(userDetails, cacheToken);
+        }
+    }
+
+    /**
+     * Resuelve los roles de un grupo de usuarios con una única búsqueda deduplicada y construye sus detalles.
+     *
+     * @param users los usuarios a transformar.
+     * @return un {@link Flux} que emite los detalles de cada usuario con sus roles.
+     */
+    private Flux<CustomUserDetailsDTO> mapWithRoles(List<User> users) {
+        Set<String> roleIds = users.stream()
+                .flatMap(user -> user.getRoleIds().stream())
+                .collect(Collectors.toSet());
+        if (roleIds.isEmpty()) {
+            return Flux.fromIterable(users).map(userMapper::mapToUserDetails);
+        }
+
+        return roleService.findRolesByIds(roleIds)
+                .collectMap(Role::getId)
+                .flatMapMany(rolesById -> Flux.fromIterable(users)
+                        .map(user -> userMapper.mapToUserDetails(user, user.getRoleIds().stream()
+                                .map(rolesById::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet()))));
+    }
+
 }
@@ -0,0 +1,78 @@
+package com.diceprojects.msvcauthorization.utils;
+
+import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleDTO;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+
+/**
+ * Calcula ETags fuertes para las respuestas de lectura de roles y usuarios.
+ * <p>
+ * El ETag de un rol se deriva de su ID y de sus fechas de creación y actualización, que cambian en cada
+ * escritura, por lo que no requiere serializar el rol. El ETag de un usuario se deriva de su ID, nombre,
+ * estado y roles, ya que sus detalles se resuelven desde la caché en memoria y no tienen fecha de actualización.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Calcula el ETag de un rol.
+     *
+     * @param role el rol.
+     * @return el ETag del rol, sin comillas.
+     */
+    public static String forRole(Role role) {
+        return hash(version(role));
+    }
+
+    /**
+     * Calcula el ETag de una lista de roles, que cambia si cambia cualquiera de ellos o su orden.
+     *
+     * @param roles los roles, en el orden en que se devuelven.
+     * @return el ETag de la lista, sin comillas.
+     */
+    public static String forRoles(Collection<Role> roles) {
+        StringBuilder versions = new StringBuilder();
+        for (Role role : roles) {
+            versions.append(version(role)).append('\n');
+        }
+        return hash(versions.toString());
+    }
+
+    /**
+     * Calcula el ETag de los detalles de un usuario.
+     *
+     * @param userDetails los detalles del usuario.
+     * @return el ETag del usuario, sin comillas.
+     */
+    public static String forUser(CustomUserDetailsDTO userDetails) {
+        StringBuilder content = new StringBuilder()
+                .append(userDetails.getId()).append('|')
+                .append(userDetails.getUsername()).append('|')
+                .append(userDetails.getStatus());
+        if (userDetails.getRoles() != null) {
+            userDetails.getRoles().stream()
+                    .sorted(Comparator.comparing(RoleDTO::getId, Comparator.nullsFirst(Comparator.naturalOrder())))
+                    .forEach(role -> content.append('|').append(role.getId())
+                            .append(':').append(role.getRole())
+                            .append(':').append(role.getStatus()));
+        }
+        return hash(content.toString());
+    }
+
+    private static String version(Role role) {
+        return role.getId() + '|' + Objects.toString(role.getCreateDate(), "") + '|'
+                + Objects.toString(role.getUpdateDate(), "") + '|' + role.getStatus();
+    }
+
+    private static String hash(String value) {
+        return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -4,31 +4,67 @@ import com.diceprojects.msvcauthorization.clients.ConfigurationClient;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Servicio para manejar el estado de las entidades a través de la configuración centralizada.
  * Esta clase se comunica con el servicio de configuración para obtener el estado activo de las entidades,
  * permitiendo a otros componentes de la aplicación acceder a esta información de manera reactiva.
+ * <p>
+ * El mapa de estados ya procesado se mantiene en una caché en memoria con expiración configurable.
+ * Antes de expirar se refresca en segundo plano, y las cargas concurrentes de la misma clave comparten
+ * una única solicitud en curso hacia msvc-configurations.
  */
 @Service
 public class EntityStatusService {
 
+    private static final String ENTITY_STATUS_PARAMETER = "EntityStatus";
+    private static final String ACTIVE_STATUS_KEY = "status1";
+    private static final TypeReference<Map<String, String>> STATUS_MAP_TYPE = new TypeReference<>() {
+    };
+
     private final ConfigurationClient configurationClient;
     private final ObjectMapper objectMapper;
+    private final AsyncLoadingCache<String, Map<String, String>> statusCache;
+    private final Counter refreshCounter;
 
     /**
      * Constructor de EntityStatusService.
      *
      * @param configurationClient El cliente para acceder a los parámetros de configuración.
      * @param objectMapper        El mapeador de objetos para el procesamiento de JSON.
+     * @param meterRegistry       El registro de métricas donde se publican aciertos, fallos y refrescos de la caché.
+     * @param ttl                 El tiempo de vida de un mapa de estados en caché.
+     * @param refreshAfter        El tiempo tras el cual un mapa de estados se refresca en segundo plano.
      */
-    public EntityStatusService(ConfigurationClient configurationClient, ObjectMapper objectMapper) {
+    public EntityStatusService(ConfigurationClient configurationClient, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               @Value("${msvc.cache.entity-status.ttl:10m}") Duration ttl,
+                               @Value("${msvc.cache.entity-status.refresh-after:5m}") Duration refreshAfter) {
         this.configurationClient = configurationClient;
         this.objectMapper = objectMapper;
+        this.refreshCounter = Counter.builder("cache.refreshes")
+                .tag("cache", "entityStatus")
+                .description("Refrescos en segundo plano del mapa de estados")
+                .register(meterRegistry);
+        this.statusCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(refreshAfter)
+                .recordStats()
+                .buildAsync(new StatusMapLoader());
+        CaffeineCacheMetrics.monitor(meterRegistry, statusCache, "entityStatus");
     }
 
     /**
@@ -39,16 +75,41 @@ public class EntityStatusService {
      * @return Un {@link Mono} que emite el estado activo como una cadena, o un error si no se puede procesar el parámetro.
      */
     public Mono<String> obtenerEstadoActivo() {
-        return configurationClient.getParameterByName("EntityStatus")
+        return Mono.fromFuture(() -> statusCache.get(ENTITY_STATUS_PARAMETER), true)
+                .flatMap(statusMap -> Mono.justOrEmpty(statusMap.get(ACTIVE_STATUS_KEY)));
+    }
+
+    /**
+     * Obtiene y procesa el valor de un parámetro de configuración como un mapa de estados.
+     *
+     * @param parameterName el nombre del parámetro a obtener.
+     * @return un {@link Mono} que emite el mapa de estados, o un error si no se puede procesar el parámetro.
+     */
+    private Mono<Map<String, String>> loadStatusMap(String parameterName) {
+        return configurationClient.getParameterByName(parameterName)
                 .flatMap(parameter -> {
                     try {
-                        Map<String, String> statusMap = objectMapper.readValue(parameter.getValue(), new TypeReference<>() {
-                        });
-                        return Mono.justOrEmpty(statusMap.get("status1"));
+                        return Mono.justOrEmpty(objectMapper.readValue(parameter.getValue(), STATUS_MAP_TYPE));
                     } catch (JsonProcessingException e) {
                         return Mono.error(new RuntimeException("Error al procesar los valores del parámetro", e));
                     }
                 });
     }
-}
 
+    /**
+     * Cargador de la caché que obtiene el mapa de estados y contabiliza los refrescos en segundo plano.
+     */
+    private class StatusMapLoader implements AsyncCacheLoader<String, Map<String, String>> {
+
+        @Override
+        public CompletableFuture<? extends Map<String, String>> asyncLoad(String key, Executor executor) {
+            return loadStatusMap(key).toFuture();
+        }
+
+        @Override
+        public CompletableFuture<? extends Map<String, String>> asyncReload(String key, Map<String, String> oldValue, Executor executor) {
+            refreshCounter.increment();
+            return asyncLoad(key, executor);
+        }
+    }
+}
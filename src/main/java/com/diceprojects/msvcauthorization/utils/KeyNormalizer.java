@@ -0,0 +1,25 @@
+package com.diceprojects.msvcauthorization.utils;
+
+import java.util.Locale;
+
+/**
+ * Clase utilitaria para normalizar claves de búsqueda, como nombres de usuario o nombres de rol.
+ * <p>
+ * La normalización permite que las búsquedas sin distinción de mayúsculas y minúsculas
+ * compartan una misma clave, tanto en memoria como en la base de datos.
+ */
+public final class KeyNormalizer {
+
+    private KeyNormalizer() {
+    }
+
+    /**
+     * Normaliza una clave convirtiéndola a minúsculas con reglas independientes de la configuración regional.
+     *
+     * @param value el valor a normalizar.
+     * @return la clave normalizada, o {@code null} si el valor es {@code null}.
+     */
+    public static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+}
@@ -0,0 +1,68 @@
+package com.diceprojects.msvcauthorization.utils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa solicitudes concurrentes idénticas para que compartan una única carga en curso.
+ * <p>
+ * La primera solicitud de una clave inicia la carga y las solicitudes concurrentes con la misma clave
+ * se suscriben al mismo {@link Mono}, recibiendo el resultado todas juntas. La carga compartida se descarta
+ * en cuanto finaliza, por lo que no actúa como caché. Las solicitudes agrupadas se contabilizan en la
+ * métrica {@code requests.coalesced}.
+ *
+ * @param <K> el tipo de la clave que identifica la solicitud.
+ * @param <V> el tipo del valor cargado.
+ */
+public class RequestCoalescer<K, V> {
+
+    private final ConcurrentMap<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalescedCounter;
+
+    /**
+     * Constructor de RequestCoalescer.
+     *
+     * @param meterRegistry el registro de métricas donde se publican las solicitudes agrupadas y en curso.
+     * @param operation     el nombre de la operación, utilizado como etiqueta de las métricas.
+     */
+    public RequestCoalescer(MeterRegistry meterRegistry, String operation) {
+        this.coalescedCounter = Counter.builder("requests.coalesced")
+                .tag("operation", operation)
+                .description("Solicitudes que se unieron a una carga ya en curso")
+                .register(meterRegistry);
+        Gauge.builder("requests.inflight", inFlight, Map::size)
+                .tag("operation", operation)
+                .description("Cargas compartidas actualmente en curso")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ejecuta la carga para una clave, o se une a la carga en curso si ya existe una para la misma clave.
+     *
+     * @param key    la clave que identifica la solicitud.
+     * @param loader el proveedor de la carga, invocado solo si no hay una carga en curso para la clave.
+     * @return un {@link Mono} compartido que emite el resultado de la carga.
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            boolean[] started = {false};
+            Mono<V> shared = inFlight.computeIfAbsent(key, k -> {
+                started[0] = true;
+                return loader.get()
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+            if (!started[0]) {
+                coalescedCounter.increment();
+            }
+            return shared;
+        });
+    }
+}
@@ -0,0 +1,111 @@
+package com.diceprojects.msvcauthorization.cache.invalidation;
+
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.RoleCache;
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
+import com.diceprojects.msvcauthorization.cache.UserDetailsCache;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.persistences.repositories.RoleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica cómo {@link CacheInvalidationListener} aplica los eventos del bus y se recupera de una interrupción.
+ */
+class CacheInvalidationListenerTest {
+
+    private final CacheInvalidationBus bus = mock(CacheInvalidationBus.class);
+    private final CacheInvalidationPublisher publisher = mock(CacheInvalidationPublisher.class);
+    private final RoleRepository roleRepository = mock(RoleRepository.class);
+    private final RoleCache roleCache = mock(RoleCache.class);
+    private final RoleIndex roleIndex = mock(RoleIndex.class);
+    private final UserDetailsCache userDetailsCache = mock(UserDetailsCache.class);
+    private final AuthorizationDecisionCache decisionCache = mock(AuthorizationDecisionCache.class);
+    private final Sinks.Many<CacheInvalidationEvent> events = Sinks.many().multicast().onBackpressureBuffer();
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        when(publisher.getNodeId()).thenReturn("local");
+        listener = new CacheInvalidationListener(bus, publisher, roleRepository, roleCache, roleIndex,
+                userDetailsCache, decisionCache, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.destroy();
+    }
+
+    @Test
+    void userEventEvictsUserDetailsAndDecisions() {
+        subscribe();
+        events.tryEmitNext(new CacheInvalidationEvent(CacheInvalidationEvent.Type.USER, List.of("ana"), "remoto"));
+
+        verify(userDetailsCache).evict("ana");
+        verify(decisionCache).evictUser("ana");
+    }
+
+    @Test
+    void ignoresEventsFromThisInstance() {
+        subscribe();
+        events.tryEmitNext(new CacheInvalidationEvent(CacheInvalidationEvent.Type.USER, List.of("ana"), "local"));
+
+        verifyNoInteractions(userDetailsCache, decisionCache);
+    }
+
+    @Test
+    void roleEventReloadsRoleAndEvictsDependents() {
+        Role role = new Role();
+        role.setId("role-1");
+        when(roleCache.token()).thenReturn(7L);
+        when(roleRepository.findById("role-1")).thenReturn(Mono.just(role));
+
+        subscribe();
+        events.tryEmitNext(new CacheInvalidationEvent(CacheInvalidationEvent.Type.ROLE, List.of("role-1"), "remoto"));
+
+        verify(roleCache).evictById("role-1");
+        verify(roleCache).put(role, 7L);
+        verify(userDetailsCache).evictByRoleId("role-1");
+        verify(decisionCache).evictAll();
+    }
+
+    @Test
+    void reloadsRoleHierarchyWhenSubscriptionIsInterrupted() {
+        Role role = new Role();
+        role.setId("role-1");
+        when(roleRepository.findAll()).thenReturn(Flux.just(role));
+        AtomicInteger subscriptions = new AtomicInteger();
+        when(bus.events()).thenReturn(Flux.defer(() -> subscriptions.incrementAndGet() == 1
+                ? Flux.error(new IllegalStateException("change stream interrumpido"))
+                : events.asFlux()));
+
+        listener.afterPropertiesSet();
+
+        verify(roleIndex, timeout(5000)).registerAll(List.of(role));
+        verify(roleCache).evictAll();
+        verify(userDetailsCache, timeout(5000).times(2)).evictAll();
+        verify(decisionCache, timeout(5000).times(2)).evictAll();
+
+        events.tryEmitNext(new CacheInvalidationEvent(CacheInvalidationEvent.Type.USER, List.of("ana"), "remoto"));
+        verify(userDetailsCache, timeout(5000)).evict("ana");
+    }
+
+    private void subscribe() {
+        when(bus.events()).thenReturn(events.asFlux());
+        listener.afterPropertiesSet();
+    }
+}
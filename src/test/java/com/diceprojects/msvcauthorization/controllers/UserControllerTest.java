@@ -0,0 +1,94 @@
+package com.diceprojects.msvcauthorization.controllers;
+
+import com.diceprojects.msvcauthorization.config.BinaryCodecs;
+import com.diceprojects.msvcauthorization.config.WebFluxConfig;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleDTO;
+import com.diceprojects.msvcauthorization.services.UserImportService;
+import com.diceprojects.msvcauthorization.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica la negociación condicional de {@link UserController}: ETag, 304 y {@code Vary: Accept}.
+ */
+class UserControllerTest {
+
+    private final UserService userService = mock(UserService.class);
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToController(new UserController(userService, mock(UserImportService.class)))
+                .webFilter(new WebFluxConfig().varyByAcceptFilter())
+                .httpMessageCodecs(BinaryCodecs::register)
+                .build();
+    }
+
+    @Test
+    void respondsNotModifiedWhenETagMatches() {
+        when(userService.findByUsername("ana")).thenReturn(Mono.just(userDetails("Active")));
+
+        String eTag = webTestClient.get().uri("/api/user/ana")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+        assertNotNull(eTag);
+
+        webTestClient.get().uri("/api/user/ana")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag)
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void respondsWithBodyWhenUserChanged() {
+        when(userService.findByUsername("ana"))
+                .thenReturn(Mono.just(userDetails("Active")))
+                .thenReturn(Mono.just(userDetails("Inactive")));
+
+        String eTag = webTestClient.get().uri("/api/user/ana")
+                .exchange()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+
+        String changedETag = webTestClient.get().uri("/api/user/ana")
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders().getETag();
+        assertNotEquals(eTag, changedETag);
+    }
+
+    @Test
+    void negotiatesBinaryFormatWithVaryHeader() {
+        when(userService.findByUsername("ana")).thenReturn(Mono.just(userDetails("Active")));
+
+        webTestClient.get().uri("/api/user/ana")
+                .header(HttpHeaders.ACCEPT, BinaryCodecs.APPLICATION_SMILE_VALUE)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(BinaryCodecs.APPLICATION_SMILE_VALUE)
+                .expectHeader().valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    private static CustomUserDetailsDTO userDetails(String status) {
+        return new CustomUserDetailsDTO("user-1", "ana", status, Set.of(new RoleDTO("role-1", "ADMIN", "Active")));
+    }
+}
@@ -0,0 +1,104 @@
+package com.diceprojects.msvcauthorization.services;
+
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.AuthorizationDecisionDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.CustomUserDetailsDTO;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica qué decisiones de {@link AuthorizationServiceImpl} se guardan en la caché de decisiones.
+ */
+class AuthorizationServiceImplTest {
+
+    private final UserService userService = mock(UserService.class);
+    private final RoleIndex roleIndex = new RoleIndex();
+    private final AuthorizationDecisionCache decisionCache =
+            new AuthorizationDecisionCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    private final AuthorizationServiceImpl authorizationService = new AuthorizationServiceImpl(userService, decisionCache, roleIndex);
+
+    @BeforeEach
+    void registerRoles() {
+        Role admin = new Role();
+        admin.setId("role-admin");
+        admin.setRole("ADMIN");
+        admin.setStatus("Active");
+        roleIndex.register(admin);
+    }
+
+    @Test
+    void cachesDecisionComputedFromUserDetails() {
+        when(userService.findByUsername("ana")).thenReturn(Mono.just(admin("ana")));
+
+        assertTrue(allowed("ana"));
+        assertTrue(allowed("ana"));
+        verify(userService, times(1)).findByUsername("ana");
+    }
+
+    @Test
+    void deniesMissingUserWithoutCaching() {
+        when(userService.findByUsername("ana"))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Usuario no encontrado")));
+
+        assertFalse(allowed("ana"));
+        assertFalse(allowed("ana"));
+        verify(userService, times(2)).findByUsername("ana");
+        assertNull(decisionCache.get("ana", "admin"));
+    }
+
+    @Test
+    void propagatesLookupErrorsWithoutCaching() {
+        when(userService.findByUsername("ana"))
+                .thenReturn(Mono.error(new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "Error encontrando usuario")));
+
+        ResponseStatusException error = assertThrows(ResponseStatusException.class, () -> allowed("ana"));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, error.getStatusCode());
+        assertNull(decisionCache.get("ana", "admin"));
+    }
+
+    @Test
+    void discardsDecisionComputedBeforeEviction() {
+        long token = decisionCache.token();
+        decisionCache.evictUser("ana");
+        decisionCache.put("ana", "admin", true, token);
+        assertNull(decisionCache.get("ana", "admin"));
+
+        token = decisionCache.token();
+        decisionCache.evictAll();
+        decisionCache.put("ana", "admin", true, token);
+        assertNull(decisionCache.get("ana", "admin"));
+
+        decisionCache.put("ana", "admin", true, decisionCache.token());
+        assertEquals(Boolean.TRUE, decisionCache.get("ana", "admin"));
+    }
+
+    private boolean allowed(String username) {
+        AuthorizationDecisionDTO decision = authorizationService.authorize(username, "ADMIN", null).block();
+        return decision != null && decision.isAllowed();
+    }
+
+    private CustomUserDetailsDTO admin(String username) {
+        CustomUserDetailsDTO userDetails = new CustomUserDetailsDTO("user-1", username, "Active", Set.of());
+        userDetails.getRoleBits().set(roleIndex.bitOf("role-admin"));
+        return userDetails;
+    }
+}
@@ -0,0 +1,112 @@
+package com.diceprojects.msvcauthorization.services;
+
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
+import com.diceprojects.msvcauthorization.cache.UserDetailsCache;
+import com.diceprojects.msvcauthorization.cache.invalidation.CacheInvalidationPublisher;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserDTO;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.UserImportResultDTO;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.persistences.models.entities.User;
+import com.diceprojects.msvcauthorization.persistences.models.mappers.UserMapper;
+import com.diceprojects.msvcauthorization.persistences.repositories.UserRepository;
+import com.diceprojects.msvcauthorization.security.PasswordHashingService;
+import com.diceprojects.msvcauthorization.utils.EntityStatusService;
+import com.mongodb.bulk.BulkWriteError;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica el resultado por registro de la importación masiva de {@link UserImportServiceImpl}.
+ */
+class UserImportServiceImplTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleService roleService = mock(RoleService.class);
+    private final EntityStatusService entityStatusService = mock(EntityStatusService.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private final UserDetailsCache userDetailsCache = mock(UserDetailsCache.class);
+    private final AuthorizationDecisionCache decisionCache = mock(AuthorizationDecisionCache.class);
+    private final CacheInvalidationPublisher invalidationPublisher = mock(CacheInvalidationPublisher.class);
+
+    @BeforeEach
+    void setUp() {
+        Role defaultRole = new Role();
+        defaultRole.setId("role-user");
+        defaultRole.setRole("USER");
+        defaultRole.setStatus("Active");
+        when(entityStatusService.obtenerEstadoActivo()).thenReturn(Mono.just("Active"));
+        when(roleService.getDefaultUserRole()).thenReturn(Mono.just(defaultRole));
+        when(passwordHashingService.encode(any())).thenReturn(Mono.just("{bcrypt}hash"));
+        when(userRepository.findExistingUsernameKeys(anyCollection())).thenReturn(Flux.just("existente"));
+    }
+
+    @Test
+    void reportsResultPerRecordInInputOrder() {
+        BulkWriteError duplicateKey = new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 1);
+        when(userRepository.insertAllUnordered(anyList())).thenAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.get(0).setId("id-nuevo");
+            return Mono.just(Map.of(1, duplicateKey));
+        });
+
+        List<UserImportResultDTO> results = importUsers(100,
+                new UserDTO("nuevo", "secreto"),
+                new UserDTO("", "secreto"),
+                new UserDTO("Existente", "secreto"),
+                new UserDTO("NUEVO", "secreto"),
+                new UserDTO("concurrente", "secreto"));
+
+        assertStatuses(results, UserImportResultDTO.Status.CREATED, UserImportResultDTO.Status.INVALID,
+                UserImportResultDTO.Status.DUPLICATE, UserImportResultDTO.Status.DUPLICATE, UserImportResultDTO.Status.DUPLICATE);
+        assertEquals("id-nuevo", results.get(0).getId());
+        verify(userDetailsCache).evict("nuevo");
+        verify(decisionCache).evictUser("nuevo");
+        verify(invalidationPublisher).usersChanged(List.of("nuevo"));
+    }
+
+    @Test
+    void reportsFailedBatchAndContinuesWithNextBatch() {
+        when(userRepository.insertAllUnordered(anyList()))
+                .thenReturn(Mono.error(new IllegalStateException("MongoDB no disponible")))
+                .thenReturn(Mono.just(Map.of()));
+
+        List<UserImportResultDTO> results = importUsers(1,
+                new UserDTO("primero", "secreto"),
+                new UserDTO("segundo", "secreto"));
+
+        assertStatuses(results, UserImportResultDTO.Status.FAILED, UserImportResultDTO.Status.CREATED);
+        verify(userDetailsCache, never()).evict("primero");
+        verify(invalidationPublisher).usersChanged(List.of("segundo"));
+    }
+
+    private List<UserImportResultDTO> importUsers(int batchSize, UserDTO... users) {
+        UserImportServiceImpl importService = new UserImportServiceImpl(userRepository, roleService, entityStatusService,
+                new UserMapper(new RoleIndex()), passwordHashingService, userDetailsCache, decisionCache, invalidationPublisher,
+                batchSize, 2);
+        return importService.importUsers(Flux.just(users)).collectList().block();
+    }
+
+    private static void assertStatuses(List<UserImportResultDTO> results, UserImportResultDTO.Status... expected) {
+        assertEquals(expected.length, results.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(i, results.get(i).getIndex());
+            assertEquals(expected[i], results.get(i).getStatus(), "Registro " + i);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.diceprojects.msvcauthorization.services;
+
+import com.diceprojects.msvcauthorization.cache.AuthorizationDecisionCache;
+import com.diceprojects.msvcauthorization.cache.RoleIndex;
+import com.diceprojects.msvcauthorization.cache.UserDetailsCache;
+import com.diceprojects.msvcauthorization.cache.invalidation.CacheInvalidationPublisher;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.BulkRoleAssignmentRequest;
+import com.diceprojects.msvcauthorization.persistences.models.dtos.RoleAssignmentResultDTO;
+import com.diceprojects.msvcauthorization.persistences.models.entities.Role;
+import com.diceprojects.msvcauthorization.persistences.models.entities.User;
+import com.diceprojects.msvcauthorization.persistences.models.mappers.UserMapper;
+import com.diceprojects.msvcauthorization.persistences.repositories.UserRepository;
+import com.diceprojects.msvcauthorization.security.LoginAttemptThrottle;
+import com.diceprojects.msvcauthorization.security.PasswordHashingService;
+import com.diceprojects.msvcauthorization.utils.EntityStatusService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifica los resultados por usuario de la asignación masiva de roles de {@link UserServiceImpl}.
+ */
+class UserServiceImplTest {
+
+    private static final String ROLE_ID = "role-1";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RoleService roleService = mock(RoleService.class);
+    private final UserDetailsCache userDetailsCache = mock(UserDetailsCache.class);
+    private final AuthorizationDecisionCache decisionCache = mock(AuthorizationDecisionCache.class);
+    private final CacheInvalidationPublisher invalidationPublisher = mock(CacheInvalidationPublisher.class);
+    private final PasswordHashingService passwordHashingService = mock(PasswordHashingService.class);
+    private UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        Role role = new Role();
+        role.setId(ROLE_ID);
+        role.setRole("ADMIN");
+        role.setStatus("Active");
+        when(roleService.findRolesByIds(Set.of(ROLE_ID))).thenReturn(Flux.just(role));
+        when(passwordHashingService.encode(any())).thenReturn(Mono.just("{bcrypt}dummy"));
+
+        userService = new UserServiceImpl(userRepository, roleService, mock(EntityStatusService.class),
+                new UserMapper(new RoleIndex()), userDetailsCache, decisionCache, invalidationPublisher,
+                passwordHashingService, mock(LoginAttemptThrottle.class), 500, 500, 10000, 50, 500, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void reportsOutcomePerUserWithOneBulkWrite() {
+        when(userRepository.findRoleIdsByUsernames(anyCollection()))
+                .thenReturn(Flux.just(user("ana"), user("bruno", ROLE_ID)));
+        when(userRepository.changeRoleIdIfNeeded(Set.of("Ana"), ROLE_ID, true)).thenReturn(Mono.just(1L));
+
+        Map<String, RoleAssignmentResultDTO.Outcome> outcomes =
+                bulkChangeRole(List.of("Ana", "bruno", "carla"), BulkRoleAssignmentRequest.Operation.ASSIGN);
+
+        assertEquals(RoleAssignmentResultDTO.Outcome.ASSIGNED, outcomes.get("Ana"));
+        assertEquals(RoleAssignmentResultDTO.Outcome.UNCHANGED, outcomes.get("bruno"));
+        assertEquals(RoleAssignmentResultDTO.Outcome.NOT_FOUND, outcomes.get("carla"));
+        verify(userRepository, times(1)).findRoleIdsByUsernames(anyCollection());
+        verify(userDetailsCache).evict("Ana");
+        verify(userDetailsCache, never()).evict("bruno");
+        verify(decisionCache).evictUser("Ana");
+        verify(invalidationPublisher).usersChanged(Set.of("Ana"));
+    }
+
+    @Test
+    void skipsBulkWriteEffectsWhenNothingIsPending() {
+        when(userRepository.findRoleIdsByUsernames(anyCollection())).thenReturn(Flux.just(user("ana")));
+        when(userRepository.changeRoleIdIfNeeded(Set.of(), ROLE_ID, false)).thenReturn(Mono.just(0L));
+
+        Map<String, RoleAssignmentResultDTO.Outcome> outcomes =
+                bulkChangeRole(List.of("ana"), BulkRoleAssignmentRequest.Operation.REVOKE);
+
+        assertEquals(RoleAssignmentResultDTO.Outcome.UNCHANGED, outcomes.get("ana"));
+        verify(userDetailsCache, never()).evict(any());
+        verify(invalidationPublisher, never()).usersChanged(anyCollection());
+    }
+
+    @Test
+    void rereadsBatchWhenBulkWriteModifiesFewerUsers() {
+        when(userRepository.findRoleIdsByUsernames(anyCollection()))
+                .thenReturn(Flux.just(user("ana", ROLE_ID), user("bruno", ROLE_ID)))
+                .thenReturn(Flux.just(user("ana"), user("bruno", ROLE_ID)));
+        when(userRepository.changeRoleIdIfNeeded(eq(Set.of("ana", "bruno")), eq(ROLE_ID), anyBoolean())).thenReturn(Mono.just(1L));
+
+        Map<String, RoleAssignmentResultDTO.Outcome> outcomes =
+                bulkChangeRole(List.of("ana", "bruno"), BulkRoleAssignmentRequest.Operation.REVOKE);
+
+        assertEquals(RoleAssignmentResultDTO.Outcome.REVOKED, outcomes.get("ana"));
+        assertEquals(RoleAssignmentResultDTO.Outcome.UNCHANGED, outcomes.get("bruno"));
+        verify(userRepository, times(2)).findRoleIdsByUsernames(anyCollection());
+        verify(invalidationPublisher).usersChanged(Set.of("ana"));
+    }
+
+    private Map<String, RoleAssignmentResultDTO.Outcome> bulkChangeRole(List<String> usernames, BulkRoleAssignmentRequest.Operation operation) {
+        Map<String, RoleAssignmentResultDTO.Outcome> outcomes = new LinkedHashMap<>();
+        userService.bulkChangeRole(ROLE_ID, usernames, operation)
+                .doOnNext(result -> outcomes.put(result.getUsername(), result.getOutcome()))
+                .blockLast();
+        assertEquals(usernames.size(), outcomes.size());
+        return outcomes;
+    }
+
+    private static User user(String username, String... roleIds) {
+        User user = new User();
+        user.setUsername(username);
+        user.getRoleIds().addAll(List.of(roleIds));
+        return user;
+    }
+}
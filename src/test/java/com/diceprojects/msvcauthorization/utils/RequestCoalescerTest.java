@@ -0,0 +1,63 @@
+package com.diceprojects.msvcauthorization.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Verifica que {@link RequestCoalescer} comparta las cargas concurrentes y libere la clave al finalizar.
+ */
+class RequestCoalescerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer<String, String> coalescer = new RequestCoalescer<>(meterRegistry, "test");
+
+    @Test
+    void concurrentCallersShareOneLoad() {
+        AtomicInteger loads = new AtomicInteger();
+        Sinks.One<String> result = Sinks.one();
+
+        Mono<String> first = coalescer.execute("key", () -> {
+            loads.incrementAndGet();
+            return result.asMono();
+        }).cache();
+        Mono<String> second = coalescer.execute("key", () -> {
+            loads.incrementAndGet();
+            return Mono.just("otra carga");
+        }).cache();
+        first.subscribe();
+        second.subscribe();
+        result.tryEmitValue("valor");
+
+        assertEquals("valor", first.block());
+        assertEquals("valor", second.block());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("requests.coalesced").counter().count());
+    }
+
+    @Test
+    void keyIsReleasedAfterCompletion() {
+        AtomicInteger loads = new AtomicInteger();
+
+        coalescer.execute("key", () -> Mono.fromCallable(() -> "valor-" + loads.incrementAndGet())).block();
+        String reloaded = coalescer.execute("key", () -> Mono.fromCallable(() -> "valor-" + loads.incrementAndGet())).block();
+
+        assertEquals("valor-2", reloaded);
+        assertEquals(0.0, meterRegistry.get("requests.inflight").gauge().value());
+    }
+
+    @Test
+    void keyIsReleasedAfterError() {
+        Mono<String> failing = coalescer.execute("key", () -> Mono.error(new IllegalStateException("fallo")));
+        assertThrows(IllegalStateException.class, failing::block);
+
+        assertEquals("valor", coalescer.execute("key", () -> Mono.just("valor")).block());
+        assertEquals(0.0, meterRegistry.get("requests.inflight").gauge().value());
+    }
+}